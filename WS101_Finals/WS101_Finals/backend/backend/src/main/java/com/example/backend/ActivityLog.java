@@ -1,12 +1,25 @@
 package com.example.backend;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Entity
-@Table(name = "activity_logs")
+@Table(name = "activity_logs", indexes = {
+        @Index(name = "idx_activity_logs_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_activity_logs_username_timestamp", columnList = "username, timestamp"),
+        @Index(name = "idx_activity_logs_action_timestamp", columnList = "action, timestamp"),
+        @Index(name = "idx_activity_logs_role_timestamp", columnList = "role, timestamp"),
+        // Combined filters; a username's rows rarely span roles, so username + role uses the username index
+        @Index(name = "idx_activity_logs_username_action_timestamp", columnList = "username, action, timestamp"),
+        @Index(name = "idx_activity_logs_role_action_timestamp", columnList = "role, action, timestamp")
+})
 public class ActivityLog {
+
+    // Shared formatter for the frontend (e.g. "2023-10-25 14:30"); formatters are immutable and thread-safe
+    public static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -44,8 +57,10 @@ public class ActivityLog {
     public String getTimestamp() {
         // Format the date nicely for the frontend (e.g. "2023-10-25 14:30")
         if (timestamp == null) return "";
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return timestamp.format(formatter);
+        return timestamp.format(TIMESTAMP_FORMAT);
     }
+    @JsonIgnore
+    public LocalDateTime getTimestampTime() { return timestamp; }
+
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
 }
\ No newline at end of file
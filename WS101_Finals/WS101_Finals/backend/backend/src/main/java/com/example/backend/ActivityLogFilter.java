@@ -0,0 +1,30 @@
+package com.example.backend;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Server-side filters for the activity log. Every field is optional;
+ * username, action and role match exactly (ignoring case), so each filter
+ * and each indexed combination reads one index range already in time order.
+ * Several actions match any of them (one range per action, merged). The time
+ * range is [from, to).
+ */
+public record ActivityLogFilter(String username, List<String> actions, String role, LocalDateTime from, LocalDateTime to) {
+
+    public static final int MAX_ACTIONS = 20;
+
+    public ActivityLogFilter {
+        // Blank values mean "any"; the same action in another case would only repeat rows
+        Set<String> distinct = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (actions != null) {
+            for (String action : actions) if (action != null && !action.isBlank()) distinct.add(action.trim());
+        }
+        actions = List.copyOf(distinct);
+        if (actions.size() > MAX_ACTIONS) {
+            throw new IllegalArgumentException("At most " + MAX_ACTIONS + " actions can be filtered at once");
+        }
+    }
+}
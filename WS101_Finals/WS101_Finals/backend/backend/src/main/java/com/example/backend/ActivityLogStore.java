@@ -0,0 +1,44 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Where activity logs are persisted and paged from. Chosen with
+ * {@code activity-log.store}: "jdbc" (default, the activity_logs table) or
+ * "segmented" (append-only local files, see {@link SegmentedActivityLogStore}).
+ */
+public interface ActivityLogStore {
+
+    /** Persists a batch in order. Called from the writer thread, or inline when the writer is full. */
+    void append(List<ActivityLog> batch);
+
+    /**
+     * Writes one page as a JSON array, newest first. Pass the id of the last row
+     * received as {@code afterId} to continue.
+     */
+    void writePage(ActivityLogFilter filter, Long afterId, int limit, OutputStream out) throws IOException;
+
+    /**
+     * Throws IllegalArgumentException unless a page can continue after this id.
+     * Called before the response starts, so a bad cursor is a 400 and not a
+     * failure halfway through the stream.
+     */
+    void checkCursor(long afterId);
+
+    // Same shape as a serialized ActivityLog entity
+    static void writeEntry(JsonGenerator json, long id, String username, String action, String role,
+                           LocalDateTime timestamp) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", id);
+        json.writeStringField("username", username);
+        json.writeStringField("action", action);
+        json.writeStringField("role", role);
+        json.writeStringField("timestamp", timestamp == null ? "" : ActivityLog.TIMESTAMP_FORMAT.format(timestamp));
+        json.writeEndObject();
+    }
+}
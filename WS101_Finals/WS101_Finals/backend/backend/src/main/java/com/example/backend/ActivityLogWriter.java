@@ -0,0 +1,191 @@
+package com.example.backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes activity logs off the request thread. Callers enqueue into a bounded
+ * lock-free buffer; a single background writer flushes batches to the
+ * {@link ActivityLogStore} whenever {@code activity-log.batch-size} entries
+ * are waiting or {@code activity-log.flush-interval-ms} has passed. Shutdown
+ * drains the buffer.
+ *
+ * When the buffer is full, {@code activity-log.overflow} decides: "block" waits
+ * for room, "drop" discards the entry (counted), "sync" writes it inline.
+ */
+@Component
+public class ActivityLogWriter {
+
+    public enum OverflowPolicy { BLOCK, DROP, SYNC }
+
+    @Autowired private ActivityLogStore store;
+    @Autowired private ActivityRollupAggregator rollupAggregator;
+
+    @Value("${activity-log.capacity:10000}")
+    private int capacity;
+
+    @Value("${activity-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${activity-log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${activity-log.overflow:block}")
+    private String overflow;
+
+    private OverflowPolicy overflowPolicy;
+
+    private final Queue<ActivityLog> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean running;
+    private Thread writer;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder syncWrites = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        overflowPolicy = OverflowPolicy.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+        running = true;
+        writer = Thread.ofPlatform().name("activity-log-writer").daemon().start(this::runWriter);
+    }
+
+    public void log(String username, String action, String role) {
+        log(new ActivityLog(username, action, role));
+    }
+
+    public void log(ActivityLog entry) {
+        if (!running) {
+            writeNow(entry); // shutting down: nobody is left to drain the buffer
+            return;
+        }
+        if (!reserveSlot()) {
+            switch (overflowPolicy) {
+                case DROP -> {
+                    dropped.increment();
+                    return;
+                }
+                case SYNC -> {
+                    writeNow(entry);
+                    return;
+                }
+                case BLOCK -> {
+                    while (!reserveSlot()) {
+                        if (!running) {
+                            writeNow(entry);
+                            return;
+                        }
+                        LockSupport.unpark(writer);
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                }
+            }
+        }
+
+        buffer.add(entry);
+        enqueued.increment();
+        if (size.get() >= batchSize) LockSupport.unpark(writer);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("buffered", size.get());
+        stats.put("capacity", capacity);
+        stats.put("overflowPolicy", overflowPolicy.name().toLowerCase(Locale.ROOT));
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("syncWrites", syncWrites.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        flush(Integer.MAX_VALUE); // anything the writer didn't get to
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    // Lock-free bound on the buffer: claim a slot before adding
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) return false;
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void runWriter() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long lastFlush = System.nanoTime();
+        while (running) {
+            if (size.get() >= batchSize || System.nanoTime() - lastFlush >= intervalNanos) {
+                flush(batchSize);
+                lastFlush = System.nanoTime();
+            } else {
+                LockSupport.parkNanos(intervalNanos - (System.nanoTime() - lastFlush));
+            }
+        }
+        flush(Integer.MAX_VALUE);
+    }
+
+    // Drains up to one batch at a time until the buffer is empty or the limit is reached
+    private void flush(int limit) {
+        int remaining = limit;
+        while (remaining > 0) {
+            List<ActivityLog> batch = new ArrayList<>(Math.min(batchSize, Math.max(size.get(), 1)));
+            ActivityLog entry;
+            while (batch.size() < batchSize && batch.size() < remaining && (entry = buffer.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) return;
+            size.addAndGet(-batch.size());
+            remaining -= batch.size();
+
+            try {
+                store.append(batch);
+                written.add(batch.size());
+                batch.forEach(rollupAggregator::record);
+            } catch (Exception e) {
+                failed.add(batch.size());
+                System.err.println("Failed to write " + batch.size() + " activity logs: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeNow(ActivityLog entry) {
+        try {
+            store.append(List.of(entry));
+            syncWrites.increment();
+            rollupAggregator.record(entry);
+        } catch (Exception e) {
+            failed.increment();
+            System.err.println("Failed to write activity log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Number of activity log events in one minute or hour bucket for one
+ * (role, action) pair. Rows are upserted by {@link ActivityRollupAggregator}.
+ */
+@Entity
+@Table(name = "activity_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_rollups_bucket",
+                columnNames = {"granularity", "bucket_start", "role", "action"})
+}, indexes = {
+        @Index(name = "idx_activity_rollups_role_action", columnList = "granularity, role, action, bucket_start"),
+        @Index(name = "idx_activity_rollups_action", columnList = "granularity, action, bucket_start")
+})
+public class ActivityRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String granularity; // "minute" or "hour"
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = 50)
+    private String role;
+
+    @Column(nullable = false, length = 100)
+    private String action; // normalized, e.g. "Deleted Quiz" for "Deleted Quiz: Midterm"
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+
+    public String getBucketStart() {
+        if (bucketStart == null) return "";
+        return bucketStart.format(ActivityLog.TIMESTAMP_FORMAT);
+    }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public long getEventCount() { return eventCount; }
+    public void setEventCount(long eventCount) { this.eventCount = eventCount; }
+}
@@ -0,0 +1,234 @@
+package com.example.backend;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts activity log events per minute and per hour by (role, action) in
+ * memory as they are produced, and periodically adds the deltas to
+ * activity_rollups with an upsert. Dashboards then read a few hundred rollup
+ * rows instead of scanning activity_logs.
+ *
+ * Counts still in memory when the process dies are lost; {@link #rebuild}
+ * recomputes a closed range of buckets from activity_logs.
+ */
+@Component
+public class ActivityRollupAggregator {
+
+    public static final String MINUTE = "minute";
+    public static final String HOUR = "hour";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO activity_rollups (granularity, bucket_start, role, action, event_count) VALUES (?, ?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE event_count = event_count + new.event_count";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO activity_rollups (granularity, bucket_start, role, action, event_count) VALUES (?, ?, ?, ?, ?)";
+
+    // Buckets this old no longer receive live events (a flush runs every few seconds)
+    private static final long SETTLED_HOURS = 2;
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ActivityRollupRepository rollupRepository;
+    @Autowired private TransactionTemplate transactions;
+
+    @Value("${activity-rollups.minute-retention-days:7}")
+    private int minuteRetentionDays;
+
+    private final Map<Key, AtomicLong> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object(); // a flush never runs in the middle of a rebuild
+
+    private record Key(String granularity, LocalDateTime bucketStart, String role, String action) {}
+
+    public void record(ActivityLog log) {
+        LocalDateTime at = log.getTimestampTime() != null ? log.getTimestampTime() : LocalDateTime.now();
+        String role = roleOf(log.getRole());
+        String action = normalizeAction(log.getAction());
+        increment(new Key(MINUTE, at.truncatedTo(ChronoUnit.MINUTES), role, action));
+        increment(new Key(HOUR, at.truncatedTo(ChronoUnit.HOURS), role, action));
+    }
+
+    @Scheduled(fixedDelayString = "${activity-rollups.flush-interval-ms:10000}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime staleBefore = LocalDateTime.now().minusHours(SETTLED_HOURS);
+        for (Map.Entry<Key, AtomicLong> entry : pending.entrySet()) {
+            Key key = entry.getKey();
+            long delta = entry.getValue().getAndSet(0);
+            if (delta > 0) {
+                rows.add(new Object[]{key.granularity(), Timestamp.valueOf(key.bucketStart()), key.role(), key.action(), delta});
+            }
+            // Old buckets rarely receive events, so their counters can go. Checked under the map's
+            // lock, like increment(), so a late event either lands before the removal or makes a new counter.
+            if (key.bucketStart().isBefore(staleBefore)) {
+                pending.computeIfPresent(key, (k, v) -> v.get() == 0 ? null : v);
+            }
+        }
+        if (rows.isEmpty()) return;
+
+        try {
+            // All or nothing: a half-applied batch would be counted twice on retry
+            transactions.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        } catch (Exception e) {
+            // Nothing was written, so put the deltas back for the next flush to retry
+            for (Object[] row : rows) {
+                Key key = new Key((String) row[0], ((Timestamp) row[1]).toLocalDateTime(), (String) row[2], (String) row[3]);
+                add(key, (Long) row[4]);
+            }
+            System.err.println("Failed to flush activity rollups: " + e.getMessage());
+        }
+    }
+
+    // Minute buckets are only useful for recent activity; hourly ones are kept
+    @Scheduled(cron = "${activity-rollups.purge-cron:0 15 4 * * *}")
+    public void purgeMinuteBuckets() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minuteRetentionDays);
+        while (rollupRepository.deleteOlderThan(MINUTE, cutoff, 1000) == 1000) {
+            // keep deleting in small batches
+        }
+    }
+
+    /**
+     * Buckets since {@code from}, oldest first; role and action (either may be
+     * null) are normalized as {@link #record} stores them and matched by index.
+     */
+    /**
+     * Recomputes every bucket in [from, to), widened to whole hours, from the
+     * rows in activity_logs, replacing what the rollups held. The range ends
+     * at most two hours ago, so no live event is still on its way to those
+     * buckets; minute buckets are only rebuilt within minute-retention-days.
+     * With activity-log.store=segmented only archived rows are in activity_logs.
+     */
+    public Map<String, Object> rebuild(LocalDateTime from, LocalDateTime to) {
+        long started = System.currentTimeMillis();
+        LocalDateTime settled = LocalDateTime.now().minusHours(SETTLED_HOURS).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS).equals(to) ? to : to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        if (end.isAfter(settled)) end = settled;
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Nothing to rebuild: the range must start before " + settled);
+        }
+        LocalDateTime minuteStart = LocalDateTime.now().minusDays(minuteRetentionDays).truncatedTo(ChronoUnit.HOURS);
+        if (minuteStart.isBefore(start)) minuteStart = start;
+
+        // One pass over the timestamp index; the counts are bounded by buckets × (role, action) pairs
+        Map<Key, long[]> counts = new HashMap<>();
+        LocalDateTime minutesFrom = minuteStart;
+        JdbcActivityLogStore.streaming(dataSource).query(
+                "SELECT role, action, timestamp FROM activity_logs WHERE timestamp >= ? AND timestamp < ?", rs -> {
+                    LocalDateTime at = rs.getTimestamp(3).toLocalDateTime();
+                    String role = roleOf(rs.getString(1));
+                    String action = normalizeAction(rs.getString(2));
+                    counts.computeIfAbsent(new Key(HOUR, at.truncatedTo(ChronoUnit.HOURS), role, action), k -> new long[1])[0]++;
+                    if (!at.isBefore(minutesFrom)) {
+                        counts.computeIfAbsent(new Key(MINUTE, at.truncatedTo(ChronoUnit.MINUTES), role, action), k -> new long[1])[0]++;
+                    }
+                }, Timestamp.valueOf(start), Timestamp.valueOf(end));
+
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> rows.add(new Object[]{
+                key.granularity(), Timestamp.valueOf(key.bucketStart()), key.role(), key.action(), count[0]}));
+
+        LocalDateTime rebuiltTo = end;
+        int deleted;
+        synchronized (flushLock) {
+            flushPending(); // deltas already counted for these buckets must not be added on top later
+            deleted = transactions.execute(status -> {
+                int removed = jdbcTemplate.update("DELETE FROM activity_rollups WHERE granularity = ? " +
+                        "AND bucket_start >= ? AND bucket_start < ?", HOUR, Timestamp.valueOf(start), Timestamp.valueOf(rebuiltTo));
+                removed += jdbcTemplate.update("DELETE FROM activity_rollups WHERE granularity = ? " +
+                        "AND bucket_start >= ? AND bucket_start < ?", MINUTE, Timestamp.valueOf(minutesFrom), Timestamp.valueOf(rebuiltTo));
+                if (!rows.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                return removed;
+            });
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start);
+        result.put("to", end);
+        result.put("deleted", deleted);
+        result.put("written", rows.size());
+        result.put("millis", System.currentTimeMillis() - started);
+        System.out.println("Activity rollups rebuilt: " + result);
+        return result;
+    }
+
+    public List<ActivityRollup> getSeries(String granularity, LocalDateTime from, String role, String action) {
+        String r = role == null || role.isBlank() ? null : role.toLowerCase(Locale.ROOT);
+        String a = action == null || action.isBlank() ? null : normalizeAction(action);
+        if (r != null && a != null) {
+            return rollupRepository.findByGranularityAndRoleAndActionAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+                    granularity, r, a, from);
+        }
+        if (r != null) {
+            return rollupRepository.findByGranularityAndRoleAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+                    granularity, r, from);
+        }
+        if (a != null) {
+            return rollupRepository.findByGranularityAndActionAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+                    granularity, a, from);
+        }
+        return rollupRepository.findByGranularityAndBucketStartGreaterThanEqualOrderByBucketStartAsc(granularity, from);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void increment(Key key) {
+        add(key, 1);
+    }
+
+    // Inside compute, so flush cannot drop the counter between the lookup and the add
+    private void add(Key key, long delta) {
+        pending.compute(key, (k, counter) -> {
+            AtomicLong c = counter != null ? counter : new AtomicLong();
+            c.addAndGet(delta);
+            return c;
+        });
+    }
+
+    private static String roleOf(String role) {
+        return role == null ? "unknown" : role.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Groups free-text actions: drops the detail after ':' ("Deleted Quiz: Midterm")
+     * and trailing numbers ("Created Module 3").
+     */
+    static String normalizeAction(String action) {
+        if (action == null || action.isBlank()) return "unknown";
+        String normalized = action;
+        int colon = normalized.indexOf(':');
+        if (colon >= 0) normalized = normalized.substring(0, colon);
+        normalized = normalized.replaceAll("(\\s+\\d+)+\\s*$", "").trim();
+        if (normalized.isEmpty()) return "unknown";
+        return normalized.length() > 100 ? normalized.substring(0, 100) : normalized;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ActivityRollupRepository extends JpaRepository<ActivityRollup, Long> {
+
+    // One range scan on the leading (granularity, bucket_start) columns of the unique key
+    List<ActivityRollup> findByGranularityAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+            String granularity, LocalDateTime from);
+
+    // idx_activity_rollups_role_action: one range already in bucket order
+    List<ActivityRollup> findByGranularityAndRoleAndActionAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+            String granularity, String role, String action, LocalDateTime from);
+
+    // idx_activity_rollups_role_action (prefix); the role's actions are merged by bucket
+    List<ActivityRollup> findByGranularityAndRoleAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+            String granularity, String role, LocalDateTime from);
+
+    // idx_activity_rollups_action
+    List<ActivityRollup> findByGranularityAndActionAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+            String granularity, String action, LocalDateTime from);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM activity_rollups WHERE granularity = :granularity AND bucket_start < :cutoff LIMIT :batchSize",
+           nativeQuery = true)
+    int deleteOlderThan(@Param("granularity") String granularity,
+                        @Param("cutoff") LocalDateTime cutoff,
+                        @Param("batchSize") int batchSize);
+}
@@ -1,13 +1,24 @@
 package com.example.backend;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import java.nio.file.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -17,10 +28,25 @@ public class AdminController {
     @Autowired private UserRepository userRepository;
     @Autowired private CourseRepository courseRepository;
     @Autowired private SubjectRepository subjectRepository;
-    @Autowired private ActivityLogRepository logRepository;
-    @Autowired private NotificationRepository notificationRepository; // ✅ NEW
-
-    private static final String UPLOAD_DIR = "uploads/";
+    @Autowired private ActivityLogWriter activityLogWriter;
+    @Autowired private ActivityLogStore activityLogStore;
+    @Autowired private ActivityRollupAggregator activityRollups;
+    @Autowired private NotificationService notificationService;
+    @Autowired private AudienceIndex audienceIndex;
+    @Autowired private ContentStore contentStore;
+    @Autowired private ImageDerivativeService imageDerivatives;
+    @Autowired private SearchIndexService searchIndex;
+    @Autowired private StorageAccountingService storageAccounting;
+    @Autowired private UploadReconciler uploadReconciler;
+    @Autowired private UserDirectory userDirectory;
+    @Autowired private CatalogService catalog;
+    @Autowired private DashboardCounterService counters;
+    @Autowired private AdminOverviewService overviewService;
+    @Autowired private TransactionTemplate transactions;
+    @Autowired private CatalogVersionService versions;
+
+    private static final int MAX_NOTIFICATION_PAGE = 200;
+    private static final int MAX_LOG_PAGE = 5000;
 
     // ==========================================
     // USER PROFILE ENDPOINTS
@@ -115,6 +141,9 @@ public class AdminController {
     @PutMapping("/users/{id}")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User userData) {
         return userRepository.findById(id).map(user -> {
+            String previousRole = user.getRole();
+            String previousCourseId = user.getCourseId();
+
             // Update profile fields
             if (userData.getEmail() != null) user.setEmail(userData.getEmail());
             if (userData.getFullName() != null) user.setFullName(userData.getFullName());
@@ -122,7 +151,12 @@ public class AdminController {
             if (userData.getCourseId() != null) user.setCourseId(userData.getCourseId());
             if (userData.getRole() != null) user.setRole(userData.getRole());
 
-            userRepository.save(user);
+            transactions.executeWithoutResult(tx -> {
+                userRepository.save(user);
+                counters.userChanged(previousRole, previousCourseId, user);
+            });
+            audienceIndex.userSaved(user);
+            notificationService.userChanged(user.getId()); // role/course decide which broadcasts they see
 
             // ✅ LOG IT
             logActivity(user.getUsername(), "User profile updated by admin", "admin");
@@ -165,39 +199,82 @@ public class AdminController {
     // NOTIFICATION ENDPOINTS
     // ==========================================
 
+    // Keyset-paginated: pass the X-Next-Cursor header of one page as ?cursor= to get the next
     @GetMapping("/notifications")
-    public List<Notification> getNotifications(@RequestParam(required = false) Long userId) {
-        if (userId != null) {
-            return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        }
-        // For admin, show all notifications
-        return notificationRepository.findAll();
+    public ResponseEntity<List<Notification>> getNotifications(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_NOTIFICATION_PAGE));
+        NotificationService.Page page = userId != null
+                ? notificationService.getInboxPage(userId, cursor, pageSize)
+                : notificationService.getAllPage(cursor, pageSize); // For admin, show all notifications
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) response.header("X-Next-Cursor", page.nextCursor());
+        return response.body(page.items());
     }
 
     @GetMapping("/notifications/unread-count")
     public Map<String, Long> getUnreadCount(@RequestParam Long userId) {
-        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        long count = notificationService.countUnread(userId);
         Map<String, Long> response = new HashMap<>();
         response.put("count", count);
         return response;
     }
 
+    @GetMapping("/notifications/unread-cache/stats")
+    public Map<String, Object> getUnreadCacheStats() {
+        return notificationService.getUnreadCacheStats();
+    }
+
+    // Audience preview, e.g. ?role=student&courseId=BSIT or ?role=professor
+    @GetMapping("/notifications/audience-size")
+    public Map<String, Object> getAudienceSize(@RequestParam(required = false) String role,
+                                               @RequestParam(required = false) String courseId) {
+        Audience audience = new Audience(blankToNull(role), blankToNull(courseId));
+        Map<String, Object> response = new HashMap<>();
+        response.put("role", audience.role());
+        response.put("courseId", audience.courseId());
+        response.put("count", audienceIndex.count(audience));
+        return response;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    // Push channel for new notifications and unread-count changes (replaces polling)
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @RequestParam Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam
+    ) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        SseEmitter emitter = notificationService.subscribe(userId, lastEventId);
+        if (emitter == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // don't let a reverse proxy buffer the stream
+                .body(emitter);
+    }
+
     @PostMapping("/notifications/mark-read/{id}")
     public ResponseEntity<?> markNotificationAsRead(@PathVariable Long id, @RequestParam Long userId) {
-        notificationRepository.markAsRead(id, userId);
+        notificationService.markAsRead(id, userId);
         return ResponseEntity.ok("Notification marked as read");
     }
 
     @PostMapping("/notifications/mark-all-read")
     public ResponseEntity<?> markAllNotificationsAsRead(@RequestParam Long userId) {
-        notificationRepository.markAllAsRead(userId);
+        notificationService.markAllAsRead(userId);
         return ResponseEntity.ok("All notifications marked as read");
     }
 
     // Helper method to create notifications
     private void createNotification(Long userId, String title, String message, String type, String relatedId) {
-        Notification notification = new Notification(userId, title, message, type, relatedId);
-        notificationRepository.save(notification);
+        notificationService.notifyUser(userId, title, message, type, relatedId);
     }
 
     // ==========================================
@@ -228,7 +305,11 @@ public class AdminController {
             course.setImage(imagePath);
         }
 
-        courseRepository.save(course);
+        transactions.executeWithoutResult(tx -> {
+            catalog.saveCourse(course);
+            versions.courseChanged(course.getId());
+        });
+        searchIndex.indexCourse(course);
 
         // ✅ LOG IT
         logActivity(course.getId(), "Course created", "System");
@@ -240,15 +321,12 @@ public class AdminController {
     }
 
     private void sendCourseNotificationToAllUsers(Course course) {
-        List<User> allUsers = userRepository.findAll();
-        for (User user : allUsers) {
-            // Send to students and professors
-            if ("student".equalsIgnoreCase(user.getRole()) || "professor".equalsIgnoreCase(user.getRole())) {
-                createNotification(user.getId(),
-                        "New Course Available",
-                        "A new course '" + course.getTitle() + "' (" + course.getId() + ") has been added.",
-                        "course", course.getId());
-            }
+        // One broadcast row per audience (students and professors) instead of one row per user
+        for (String role : List.of("student", "professor")) {
+            notificationService.announce(new Audience(role, null),
+                    "New Course Available",
+                    "A new course '" + course.getTitle() + "' (" + course.getId() + ") has been added.",
+                    "course", course.getId());
         }
     }
 
@@ -265,7 +343,12 @@ public class AdminController {
         if (subject.getSemester() == 0) subject.setSemester(1);
         if (subject.getStatus() == null) subject.setStatus("active");
 
-        subjectRepository.save(subject);
+        transactions.executeWithoutResult(tx -> {
+            catalog.saveSubject(subject);
+            counters.subjectAdded(subject);
+            versions.subjectChanged(subject);
+        });
+        searchIndex.indexSubject(subject);
 
         // ✅ LOG IT
         logActivity(subject.getCode(), "Subject created", "System");
@@ -277,29 +360,68 @@ public class AdminController {
     }
 
     private void sendSubjectNotification(Subject subject) {
+        if (subject.getCourseId() == null) return;
+
         // Get course to include in notification
-        Course course = courseRepository.findById(subject.getCourseId()).orElse(null);
+        Course course = catalog.getCourse(subject.getCourseId());
         String courseName = course != null ? course.getTitle() : subject.getCourseId();
 
         // Send to users in the same course
-        List<User> courseUsers = userRepository.findAll().stream()
-                .filter(u -> subject.getCourseId().equals(u.getCourseId()))
-                .toList();
-
-        for (User user : courseUsers) {
-            createNotification(user.getId(),
-                    "New Subject Added",
-                    "A new subject '" + subject.getTitle() + "' (" + subject.getCode() + ") has been added to " + courseName + ".",
-                    "subject", subject.getCode());
-        }
+        notificationService.announce(new Audience(null, subject.getCourseId()),
+                "New Subject Added",
+                "A new subject '" + subject.getTitle() + "' (" + subject.getCode() + ") has been added to " + courseName + ".",
+                "subject", subject.getCode());
     }
 
     // ==========================================
     // EXISTING METHODS (keep as is)
     // ==========================================
 
+    // Paged and sortable, e.g. ?page=0&size=50&sort=username&direction=asc&role=student&q=jo
     @GetMapping("/users")
-    public List<User> getAllUsers() { return userRepository.findAll(); }
+    public UserDirectory.Page getUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "username") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        int pageSize = Math.max(1, Math.min(size, UserDirectory.MAX_PAGE_SIZE));
+        return userDirectory.findPage(userFilter(role, courseId, q), sort, !"desc".equalsIgnoreCase(direction),
+                Math.max(0, page), pageSize);
+    }
+
+    @GetMapping("/users/count")
+    public Map<String, Long> countUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String q
+    ) {
+        return Map.of("count", userDirectory.count(userFilter(role, courseId, q)));
+    }
+
+    // Every matching user, streamed as a JSON array (same filters and sort as /users)
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "username") String sort,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        UserDirectory.validateSort(sort); // fail with a 400 before the response starts streaming
+        UserDirectory.Filter filter = userFilter(role, courseId, q);
+        boolean ascending = !"desc".equalsIgnoreCase(direction);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> userDirectory.writeAll(filter, sort, ascending, out));
+    }
+
+    private static UserDirectory.Filter userFilter(String role, String courseId, String q) {
+        return new UserDirectory.Filter(blankToNull(role), blankToNull(courseId), blankToNull(q));
+    }
 
     @PostMapping("/users")
     public ResponseEntity<?> createUser(@RequestBody User user) {
@@ -316,7 +438,12 @@ public class AdminController {
         }
         if (user.getRole() == null) user.setRole("student");
 
-        User savedUser = userRepository.save(user);
+        User savedUser = transactions.execute(tx -> {
+            User saved = userRepository.save(user);
+            counters.userAdded(saved);
+            return saved;
+        });
+        audienceIndex.userSaved(savedUser);
 
         // ✅ LOG IT
         logActivity(savedUser.getUsername(), "User created", savedUser.getRole());
@@ -335,7 +462,12 @@ public class AdminController {
         User user = userRepository.findById(id).orElse(null);
         if (user == null) return ResponseEntity.notFound().build();
 
-        userRepository.deleteById(id);
+        transactions.executeWithoutResult(tx -> {
+            userRepository.deleteById(id);
+            counters.userRemoved(user);
+        });
+        audienceIndex.userDeleted(id);
+        notificationService.userChanged(id);
 
         // ✅ LOG IT
         logActivity(user.getUsername(), "User deleted", user.getRole());
@@ -344,7 +476,9 @@ public class AdminController {
     }
 
     @GetMapping("/courses")
-    public List<Course> getAllCourses() { return courseRepository.findAll(); }
+    public ResponseEntity<List<Course>> getAllCourses(WebRequest request) {
+        return versions.respond(request, versions.catalog(), catalog::getAllCourses);
+    }
 
     @PutMapping("/courses/{id}")
     public ResponseEntity<?> updateCourse(
@@ -363,7 +497,11 @@ public class AdminController {
                 String imagePath = saveFile(file);
                 existing.setImage(imagePath);
             }
-            courseRepository.save(existing);
+            transactions.executeWithoutResult(tx -> {
+                catalog.saveCourse(existing);
+                versions.courseChanged(id);
+            });
+            searchIndex.indexCourse(existing);
 
             // ✅ LOG IT
             logActivity(existing.getId(), "Course updated", "System");
@@ -375,7 +513,11 @@ public class AdminController {
     @DeleteMapping("/courses/{id}")
     public ResponseEntity<?> deleteCourse(@PathVariable String id) {
         if (!courseRepository.existsById(id)) return ResponseEntity.notFound().build();
-        courseRepository.deleteById(id);
+        transactions.executeWithoutResult(tx -> {
+            catalog.deleteCourse(id);
+            versions.courseChanged(id);
+        });
+        searchIndex.removeCourse(id);
 
         // ✅ LOG IT
         logActivity(id, "Course deleted", "System");
@@ -384,18 +526,19 @@ public class AdminController {
     }
 
     @GetMapping("/subjects")
-    public List<Subject> getSubjects(@RequestParam(required = false) String courseId) {
+    public ResponseEntity<List<Subject>> getSubjects(@RequestParam(required = false) String courseId, WebRequest request) {
         if (courseId != null && !courseId.isEmpty()) {
-            return subjectRepository.findByCourseId(courseId);
+            return versions.respond(request, versions.course(courseId), () -> catalog.getSubjectsByCourse(courseId));
         }
-        return subjectRepository.findAll();
+        return versions.respond(request, versions.catalog(), subjectRepository::findAll);
     }
 
     @GetMapping("/subjects/{code}")
-    public ResponseEntity<Subject> getSubject(@PathVariable String code) {
-        return subjectRepository.findById(code)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Subject> getSubject(@PathVariable String code, WebRequest request) {
+        // Looked up first: respond() writes the ETag and Last-Modified, which a 404 must not carry
+        Subject subject = catalog.getSubject(code);
+        if (subject == null) return ResponseEntity.notFound().build();
+        return versions.respond(request, versions.subject(code), () -> subject);
     }
 
     @PutMapping("/subjects/{code}")
@@ -406,7 +549,11 @@ public class AdminController {
             existing.setSemester(subject.getSemester());
             existing.setStatus(subject.getStatus());
 
-            subjectRepository.save(existing);
+            transactions.executeWithoutResult(tx -> {
+                catalog.saveSubject(existing);
+                versions.subjectChanged(existing);
+            });
+            searchIndex.indexSubject(existing);
 
             // ✅ LOG IT
             logActivity(code, "Subject updated", "System");
@@ -417,8 +564,14 @@ public class AdminController {
 
     @DeleteMapping("/subjects/{code}")
     public ResponseEntity<?> deleteSubject(@PathVariable String code) {
-        if (!subjectRepository.existsById(code)) return ResponseEntity.notFound().build();
-        subjectRepository.deleteById(code);
+        Subject subject = subjectRepository.findById(code).orElse(null);
+        if (subject == null) return ResponseEntity.notFound().build();
+        transactions.executeWithoutResult(tx -> {
+            catalog.deleteSubject(subject);
+            counters.subjectRemoved(subject);
+            versions.subjectChanged(subject);
+        });
+        searchIndex.removeSubject(code);
 
         // ✅ LOG IT
         logActivity(code, "Subject deleted", "System");
@@ -426,23 +579,117 @@ public class AdminController {
         return ResponseEntity.ok("Subject deleted successfully");
     }
 
+    // Newest first, streamed as a JSON array. Pass the id of the last row as ?afterId= for the next page;
+    // repeat ?action= to match any of several actions.
     @GetMapping("/logs")
-    public List<ActivityLog> getLogs() {
-        return logRepository.findAllByOrderByTimestampDesc();
+    public ResponseEntity<StreamingResponseBody> getLogs(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) List<String> action,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        ActivityLogFilter filter = new ActivityLogFilter(blankToNull(username), action, blankToNull(role), from, to);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LOG_PAGE));
+        if (afterId != null) activityLogStore.checkCursor(afterId); // a bad cursor is a 400 before streaming starts
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> activityLogStore.writePage(filter, afterId, pageSize, out));
+    }
+
+    @GetMapping("/logs/writer-stats")
+    public Map<String, Object> getLogWriterStats() {
+        return activityLogWriter.getStats();
+    }
+
+    // Activity counts per minute or hour bucket, read from the rollup table (e.g. ?days=30&granularity=hour)
+    @GetMapping("/analytics/activity")
+    public ResponseEntity<?> getActivitySeries(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = ActivityRollupAggregator.HOUR) String granularity,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String action
+    ) {
+        if (!granularity.equals(ActivityRollupAggregator.HOUR) && !granularity.equals(ActivityRollupAggregator.MINUTE)) {
+            throw new IllegalArgumentException("granularity must be 'minute' or 'hour'");
+        }
+        LocalDateTime from = LocalDateTime.now().minusDays(Math.max(1, Math.min(days, 366)));
+        return ResponseEntity.ok(activityRollups.getSeries(granularity, from, role, action));
+    }
+
+    // Recomputes the rollup buckets of a closed range from activity_logs (e.g. ?from=2026-09-01T00:00:00)
+    @PostMapping("/analytics/activity/rebuild")
+    public Map<String, Object> rebuildActivityRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return activityRollups.rebuild(from, to != null ? to : LocalDateTime.now());
+    }
+
+    // ==========================================
+    // STORAGE USAGE AND QUOTAS
+    // ==========================================
+
+    @GetMapping("/storage")
+    public Map<String, Object> getStorageUsage() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("courses", storageAccounting.getUsage(StorageUsage.COURSE));
+        response.put("subjects", storageAccounting.getUsage(StorageUsage.SUBJECT));
+        response.put("lastReconcile", uploadReconciler.getLastRun());
+        return response;
+    }
+
+    // Body: {"quotaBytes": 10737418240}; null restores the default, 0 means unlimited
+    @PutMapping("/storage/quotas/{scope}/{scopeId}")
+    public StorageUsage setStorageQuota(@PathVariable String scope, @PathVariable String scopeId,
+                                        @RequestBody Map<String, Long> request) {
+        return storageAccounting.setQuota(scope, scopeId, request.get("quotaBytes"));
+    }
+
+    // Runs orphan cleanup and counter reconciliation now instead of waiting for the nightly run
+    @PostMapping("/storage/reconcile")
+    public Map<String, Object> reconcileStorage() throws IOException {
+        return uploadReconciler.run();
+    }
+
+    // ==========================================
+    // DASHBOARD OVERVIEW AND COUNTERS
+    // ==========================================
+    @GetMapping("/overview")
+    public ResponseEntity<?> getOverview() throws InterruptedException, ExecutionException {
+        try {
+            return ResponseEntity.ok(overviewService.getOverview());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "2").build();
+        }
+    }
+
+    // Recounts students, subjects, lessons and users per role from the tables
+    @PostMapping("/counters/reconcile")
+    public Map<String, Object> reconcileCounters() {
+        return counters.reconcile();
+    }
+
+    // ==========================================
+    // CATALOG CACHE
+    // ==========================================
+    @GetMapping("/catalog-cache/stats")
+    public Map<String, Object> getCatalogCacheStats() {
+        return catalog.getCacheStats();
     }
 
     private void logActivity(String target, String action, String role) {
-        ActivityLog log = new ActivityLog(target, action, role);
-        logRepository.save(log);
+        activityLogWriter.log(target, action, role);
     }
 
+    // Course images and profile pictures; their resized variants are generated in the background
     private String saveFile(MultipartFile file) {
         try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) Files.createDirectories(uploadPath);
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Files.copy(file.getInputStream(), uploadPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
-            return fileName;
+            String reference = contentStore.store(file);
+            imageDerivatives.submit(reference);
+            return reference;
         } catch (Exception e) {
             throw new RuntimeException("Could not store file. Error: " + e.getMessage());
         }
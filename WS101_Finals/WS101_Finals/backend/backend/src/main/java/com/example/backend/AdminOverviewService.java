@@ -0,0 +1,83 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Everything the admin dashboard shows in one response. Users per role come
+ * from {@link DashboardCounterService}; the other counts are independent
+ * queries, so they run at the same time, each on its own virtual thread, and
+ * the response waits only for the slowest one.
+ *
+ * The queries share one deadline. If one fails or the deadline passes, the
+ * executor is shut down, which interrupts whatever is still running, so
+ * nothing outlives the request.
+ */
+@Service
+public class AdminOverviewService {
+
+    @Autowired private DashboardCounterService counters;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private SubjectRepository subjectRepository;
+    @Autowired private ModuleRepository moduleRepository;
+    @Autowired private LearningMaterialRepository materialRepository;
+    @Autowired private QuizRepository quizRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Value("${admin.overview.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    /**
+     * Throws TimeoutException when the counts take longer than
+     * admin.overview.timeout-ms. A failed query's RuntimeException is rethrown as is.
+     */
+    public Map<String, Object> getOverview() throws InterruptedException, ExecutionException, TimeoutException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<Map<String, Long>> users = executor.submit(() -> counters.getRoleCounts());
+            Future<Long> courses = executor.submit(() -> courseRepository.count());
+            Future<Long> subjects = executor.submit(() -> subjectRepository.count());
+            Future<Long> modules = executor.submit(() -> moduleRepository.count());
+            Future<Long> lessons = executor.submit(() -> materialRepository.count());
+            Future<Long> quizzes = executor.submit(() -> quizRepository.count());
+            Future<Long> storageBytes = executor.submit(() -> jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(bytes), 0) FROM storage_usage WHERE scope = ?", Long.class, StorageUsage.SUBJECT));
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+            Map<String, Long> roles = await(users, deadline);
+            Map<String, Object> overview = new LinkedHashMap<>();
+            overview.put("users", roles);
+            overview.put("totalUsers", roles.values().stream().mapToLong(Long::longValue).sum());
+            overview.put("courses", await(courses, deadline));
+            overview.put("subjects", await(subjects, deadline));
+            overview.put("modules", await(modules, deadline));
+            overview.put("lessons", await(lessons, deadline));
+            overview.put("quizzes", await(quizzes, deadline));
+            overview.put("storageBytes", await(storageBytes, deadline));
+            return overview;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T await(Future<T> future, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failed) throw failed;
+            throw e;
+        }
+    }
+}
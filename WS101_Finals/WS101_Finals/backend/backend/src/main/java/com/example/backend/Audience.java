@@ -0,0 +1,16 @@
+package com.example.backend;
+
+/**
+ * Who a notification is for. A null role or course means "any", so
+ * {@code new Audience("student", "BSIT")} is the BSIT students and
+ * {@code new Audience("professor", null)} is every professor.
+ */
+public record Audience(String role, String courseId) {
+
+    public static final Audience EVERYONE = new Audience(null, null);
+
+    public boolean matches(String userRole, String userCourseId) {
+        return (role == null || role.equalsIgnoreCase(userRole))
+                && (courseId == null || courseId.equalsIgnoreCase(userCourseId));
+    }
+}
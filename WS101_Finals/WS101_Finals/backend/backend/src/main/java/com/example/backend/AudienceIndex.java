@@ -0,0 +1,133 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory roster of user ids as bitsets keyed by role and by course, so an
+ * {@link Audience} resolves with a couple of word-wise ANDs instead of a scan
+ * of the users table. Built once at startup and kept current by the user
+ * create/update/delete endpoints.
+ *
+ * Users carry no year level, so audiences can only target role and course.
+ */
+@Component
+public class AudienceIndex {
+
+    @Autowired private UserRepository userRepository;
+
+    private final BitSet everyone = new BitSet();
+    private final Map<String, BitSet> byRole = new HashMap<>();
+    private final Map<String, BitSet> byCourse = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            everyone.clear();
+            byRole.clear();
+            byCourse.clear();
+            for (UserRepository.AudienceRow row : userRepository.findAudienceRows()) {
+                add(row.getId(), row.getRole(), row.getCourseId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // MAINTENANCE (called by AdminController)
+    // ==========================================
+
+    public void userSaved(User user) {
+        lock.writeLock().lock();
+        try {
+            clear(user.getId());
+            add(user.getId(), user.getRole(), user.getCourseId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void userDeleted(Long userId) {
+        lock.writeLock().lock();
+        try {
+            clear(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // QUERIES
+    // ==========================================
+
+    /** A private copy of the matching user ids; callers may modify it. */
+    public BitSet resolve(Audience audience) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) everyone.clone();
+            if (audience.role() != null) result.and(byRole.getOrDefault(key(audience.role()), new BitSet()));
+            if (audience.courseId() != null) result.and(byCourse.getOrDefault(key(audience.courseId()), new BitSet()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(Audience audience) {
+        return resolve(audience).cardinality();
+    }
+
+    public boolean contains(Audience audience, Long userId) {
+        if (!fits(userId)) return false;
+        lock.readLock().lock();
+        try {
+            int bit = userId.intValue();
+            return everyone.get(bit)
+                    && (audience.role() == null || byRole.getOrDefault(key(audience.role()), new BitSet()).get(bit))
+                    && (audience.courseId() == null || byCourse.getOrDefault(key(audience.courseId()), new BitSet()).get(bit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // INTERNALS (callers hold the write lock)
+    // ==========================================
+
+    private void add(Long userId, String role, String courseId) {
+        if (!fits(userId)) return;
+        int bit = userId.intValue();
+        everyone.set(bit);
+        if (role != null) byRole.computeIfAbsent(key(role), k -> new BitSet()).set(bit);
+        if (courseId != null) byCourse.computeIfAbsent(key(courseId), k -> new BitSet()).set(bit);
+    }
+
+    // A handful of roles and courses, so clearing every set is cheaper than tracking memberships
+    private void clear(Long userId) {
+        if (!fits(userId)) return;
+        int bit = userId.intValue();
+        everyone.clear(bit);
+        byRole.values().forEach(set -> set.clear(bit));
+        byCourse.values().forEach(set -> set.clear(bit));
+    }
+
+    private static boolean fits(Long userId) {
+        return userId != null && userId >= 0 && userId <= Integer.MAX_VALUE;
+    }
+
+    // Role and course comparisons in MySQL are case-insensitive; match that here
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -15,7 +15,7 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private ActivityLogRepository logRepository;
+    private ActivityLogWriter activityLogWriter;
 
     /**
      * Helper method to process login with role enforcement
@@ -50,7 +50,7 @@ public class AuthController {
         }
 
         // 5. Log the successful login activity
-        logRepository.save(new ActivityLog(user.getUsername(), "Logged in to " + user.getRole() + " portal", user.getRole()));
+        activityLogWriter.log(user.getUsername(), "Logged in to " + user.getRole() + " portal", user.getRole());
 
         // 6. Return the user data to the frontend
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,66 @@
+package com.example.backend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Where uploaded bytes live. Keys are {@link ContentStore} references such as
+ * "3f9a...c2.pdf" or "3f9a...c2_thumb.jpg"; callers never see how a store lays
+ * them out.
+ *
+ * Chosen with uploads.store: "local" (default, {@link LocalBlobStore}) or "s3"
+ * ({@link S3BlobStore}, any S3-compatible service).
+ */
+public interface BlobStore {
+
+    record BlobInfo(long size, long lastModified) {}
+
+    /** Size and modification time, or null if there is no blob under the key. */
+    BlobInfo stat(String key) throws IOException;
+
+    /**
+     * Stores a local file under the key, replacing any existing blob. The source
+     * is moved when possible and must be treated as gone afterwards. If the put
+     * fails the source is left where it was.
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Moves the blob's modification time to now, e.g. when an upload turns out
+     * to be identical to it, so age-based cleanup treats it as new again.
+     * False if there is no blob under the key.
+     */
+    boolean touch(String key) throws IOException;
+
+    /** Streams bytes start..end (inclusive) of a blob; end < 0 reads to the end. */
+    InputStream open(String key, long start, long end) throws IOException;
+
+    default InputStream open(String key) throws IOException {
+        return open(key, 0, -1);
+    }
+
+    /** Calls the visitor once per stored blob, streaming the listing rather than collecting it. */
+    void forEach(BlobVisitor visitor) throws IOException;
+
+    @FunctionalInterface
+    interface BlobVisitor {
+        void visit(String key, BlobInfo info) throws IOException;
+    }
+
+    /** Removes a blob; false if there was none. */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * A URL the client can download the blob from without going through this
+     * application, valid for ttl; null when the store has no such endpoint.
+     */
+    URI presign(String key, Duration ttl);
+
+    /** The blob as a file on this machine (sendfile, random access), or null if it is remote. */
+    default Path localFile(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One announcement stored once per audience instead of once per recipient.
+ * A null role or course means "any", so (null, null) reaches every user.
+ */
+@Entity
+@Table(name = "broadcast_notifications", indexes = {
+        @Index(name = "idx_broadcast_audience", columnList = "audience_role, audience_course_id, created_at"),
+        @Index(name = "idx_broadcast_created", columnList = "created_at")
+})
+public class BroadcastNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "audience_role")
+    private String audienceRole; // 'student', 'professor', ... or null for every role
+
+    @Column(name = "audience_course_id", length = 50)
+    private String audienceCourseId; // null for every course
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String message;
+
+    @Column(nullable = false)
+    private String type; // 'course', 'subject', 'material', 'system'
+
+    @Column(name = "related_id")
+    private String relatedId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public BroadcastNotification() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public BroadcastNotification(String audienceRole, String audienceCourseId, String title, String message, String type, String relatedId) {
+        this.audienceRole = audienceRole;
+        this.audienceCourseId = audienceCourseId;
+        this.title = title;
+        this.message = message;
+        this.type = type;
+        this.relatedId = relatedId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getAudienceRole() { return audienceRole; }
+    public void setAudienceRole(String audienceRole) { this.audienceRole = audienceRole; }
+
+    public String getAudienceCourseId() { return audienceCourseId; }
+    public void setAudienceCourseId(String audienceCourseId) { this.audienceCourseId = audienceCourseId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getRelatedId() { return relatedId; }
+    public void setRelatedId(String relatedId) { this.relatedId = relatedId; }
+
+    public Audience audience() { return new Audience(audienceRole, audienceCourseId); }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,77 @@
+package com.example.backend;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BroadcastNotificationRepository extends JpaRepository<BroadcastNotification, Long> {
+
+    // Keyset page in inbox order. Inbox ids are -id, so "signed id below the cursor" means b.id > :afterId
+    @Query("SELECT b FROM BroadcastNotification b " +
+           "WHERE (b.audienceRole IS NULL OR b.audienceRole = :role) " +
+           "AND (b.audienceCourseId IS NULL OR b.audienceCourseId = :courseId) " +
+           "AND b.createdAt >= :since " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id > :afterId)) " +
+           "ORDER BY b.createdAt DESC, b.id ASC")
+    List<BroadcastNotification> findPageVisibleTo(@Param("role") String role,
+                                                  @Param("courseId") String courseId,
+                                                  @Param("since") LocalDateTime since,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("afterId") Long afterId,
+                                                  Limit limit);
+
+    // The same order over every announcement (admin view); served by idx_broadcast_created
+    @Query("SELECT b FROM BroadcastNotification b " +
+           "WHERE b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id > :afterId) " +
+           "ORDER BY b.createdAt DESC, b.id ASC")
+    List<BroadcastNotification> findPage(@Param("createdAt") LocalDateTime createdAt,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    @Query("SELECT COUNT(b) FROM BroadcastNotification b " +
+           "WHERE (b.audienceRole IS NULL OR b.audienceRole = :role) " +
+           "AND (b.audienceCourseId IS NULL OR b.audienceCourseId = :courseId) " +
+           "AND b.createdAt >= :since " +
+           "AND b.id > :watermark " +
+           "AND NOT EXISTS (SELECT r.id FROM BroadcastRead r WHERE r.userId = :userId AND r.broadcastId = b.id)")
+    long countUnreadVisibleTo(@Param("userId") Long userId,
+                              @Param("role") String role,
+                              @Param("courseId") String courseId,
+                              @Param("since") LocalDateTime since,
+                              @Param("watermark") Long watermark);
+
+    @Query("SELECT COALESCE(MAX(b.id), 0) FROM BroadcastNotification b")
+    Long findMaxId();
+
+    @Query("SELECT COALESCE(MAX(b.id), 0) FROM BroadcastNotification b WHERE b.createdAt < :cutoff")
+    Long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Retention walks ids in order, one window at a time
+    @Query("SELECT b.id FROM BroadcastNotification b WHERE b.id > :afterId AND b.id <= :maxId ORDER BY b.id")
+    List<Long> findIdsBetween(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Limit limit);
+
+    // Those of the ids that every user in their audience has read: no matching user who existed
+    // when it was made is below it with their watermark and lacks a read marker. A plain SELECT,
+    // so it reads a snapshot and locks nothing.
+    @Query(value = "SELECT b.id FROM broadcast_notifications b WHERE b.id IN (:ids) " +
+                   "AND NOT EXISTS (SELECT 1 FROM users u " +
+                   "LEFT JOIN notification_read_marks m ON m.user_id = u.id " +
+                   "WHERE (b.audience_role IS NULL OR u.role = b.audience_role) " +
+                   "AND (b.audience_course_id IS NULL OR u.course_id = b.audience_course_id) " +
+                   "AND (u.created_at IS NULL OR u.created_at <= b.created_at) " +
+                   "AND COALESCE(m.broadcast_watermark, 0) < b.id " +
+                   "AND NOT EXISTS (SELECT 1 FROM broadcast_reads r WHERE r.user_id = u.id AND r.broadcast_id = b.id))",
+           nativeQuery = true)
+    List<Long> findReadByAllAmong(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM BroadcastNotification b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
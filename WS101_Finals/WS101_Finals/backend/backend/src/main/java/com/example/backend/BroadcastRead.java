@@ -0,0 +1,43 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+
+/**
+ * A broadcast one user has read individually. Only rows above the user's
+ * watermark (see {@link NotificationReadMark}) are kept.
+ */
+@Entity
+@Table(name = "broadcast_reads", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_broadcast_reads_user_broadcast", columnNames = {"user_id", "broadcast_id"})
+}, indexes = {
+        @Index(name = "idx_broadcast_reads_broadcast", columnList = "broadcast_id")
+})
+public class BroadcastRead {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "broadcast_id", nullable = false)
+    private Long broadcastId;
+
+    public BroadcastRead() {}
+
+    public BroadcastRead(Long userId, Long broadcastId) {
+        this.userId = userId;
+        this.broadcastId = broadcastId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBroadcastId() { return broadcastId; }
+    public void setBroadcastId(Long broadcastId) { this.broadcastId = broadcastId; }
+}
@@ -0,0 +1,26 @@
+package com.example.backend;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BroadcastReadRepository extends JpaRepository<BroadcastRead, Long> {
+
+    boolean existsByUserIdAndBroadcastId(Long userId, Long broadcastId);
+
+    @Query("SELECT r.broadcastId FROM BroadcastRead r WHERE r.userId = :userId")
+    List<Long> findBroadcastIdsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM BroadcastRead r WHERE r.userId = :userId AND r.broadcastId <= :watermark")
+    void deleteCoveredByWatermark(@Param("userId") Long userId, @Param("watermark") Long watermark);
+
+    @Modifying
+    @Query("DELETE FROM BroadcastRead r WHERE r.broadcastId IN :ids")
+    int deleteByBroadcastIds(@Param("ids") List<Long> ids);
+}
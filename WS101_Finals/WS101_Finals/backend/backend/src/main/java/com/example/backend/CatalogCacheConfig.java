@@ -0,0 +1,37 @@
+package com.example.backend;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process Caffeine caches behind {@link CatalogService}. Each cache is
+ * bounded by entry count and expires entries after catalog.cache.ttl-minutes,
+ * which also caps how long a read racing a write can keep a stale entry.
+ *
+ * Inside a transaction, evictions (and puts) wait until it commits, so a read
+ * between the write and the commit cannot cache the old rows again.
+ */
+@Configuration
+public class CatalogCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${catalog.cache.max-entries:2000}") long maxEntries,
+                                     @Value("${catalog.cache.ttl-minutes:30}") long ttlMinutes) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats());
+        manager.setCacheNames(List.of(CatalogService.COURSES, CatalogService.COURSE, CatalogService.SUBJECTS_BY_COURSE,
+                CatalogService.SUBJECT, CatalogService.MODULES_BY_SUBJECT)); // fixed set; unknown names fail fast
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
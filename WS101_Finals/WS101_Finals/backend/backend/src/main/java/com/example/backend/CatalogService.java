@@ -0,0 +1,164 @@
+package com.example.backend;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache for the course catalog (courses, subjects, modules), which
+ * nearly every page reads and almost nothing writes.
+ *
+ * - Reads are {@code @Cacheable(sync = true)}: concurrent misses for one key run
+ *   a single query and share its result
+ * - Writes go through the save/delete methods here, which evict exactly the keys
+ *   the change affects once the repository call has returned
+ * - Cached lists are immutable and cached entities must not be modified; writers
+ *   load their own copy from the repository
+ */
+@Service
+public class CatalogService {
+
+    public static final String COURSES = "catalog.courses"; // single key "all"
+    public static final String COURSE = "catalog.course";
+    public static final String SUBJECTS_BY_COURSE = "catalog.subjectsByCourse";
+    public static final String SUBJECT = "catalog.subject";
+    public static final String MODULES_BY_SUBJECT = "catalog.modulesBySubject";
+
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private SubjectRepository subjectRepository;
+    @Autowired private ModuleRepository moduleRepository;
+    @Autowired private CacheManager cacheManager;
+
+    // ==========================================
+    // READS
+    // ==========================================
+
+    @Cacheable(cacheNames = COURSES, key = "'all'", sync = true)
+    public List<Course> getAllCourses() {
+        return List.copyOf(courseRepository.findAll());
+    }
+
+    /** The course, or null if there is none (misses are cached too). */
+    @Cacheable(cacheNames = COURSE, key = "#id", sync = true)
+    public Course getCourse(String id) {
+        return courseRepository.findById(id).orElse(null);
+    }
+
+    @Cacheable(cacheNames = SUBJECTS_BY_COURSE, key = "#courseId", sync = true)
+    public List<Subject> getSubjectsByCourse(String courseId) {
+        return List.copyOf(subjectRepository.findByCourseId(courseId));
+    }
+
+    /** The subject, or null if there is none (misses are cached too). */
+    @Cacheable(cacheNames = SUBJECT, key = "#code", sync = true)
+    public Subject getSubject(String code) {
+        return subjectRepository.findById(code).orElse(null);
+    }
+
+    @Cacheable(cacheNames = MODULES_BY_SUBJECT, key = "#subjectCode", sync = true)
+    public List<Module> getModules(String subjectCode) {
+        return List.copyOf(moduleRepository.findBySubjectCodeOrderByModuleNumberAsc(subjectCode));
+    }
+
+    // ==========================================
+    // WRITES (with eviction)
+    // ==========================================
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = COURSES, key = "'all'"),
+            @CacheEvict(cacheNames = COURSE, key = "#course.id")
+    })
+    public Course saveCourse(Course course) {
+        return courseRepository.save(course);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = COURSES, key = "'all'"),
+            @CacheEvict(cacheNames = COURSE, key = "#id")
+    })
+    public void deleteCourse(String id) {
+        courseRepository.deleteById(id);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SUBJECT, key = "#subject.code"),
+            @CacheEvict(cacheNames = SUBJECTS_BY_COURSE, key = "#subject.courseId", condition = "#subject.courseId != null")
+    })
+    public Subject saveSubject(Subject subject) {
+        return subjectRepository.save(subject);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SUBJECT, key = "#subject.code"),
+            @CacheEvict(cacheNames = SUBJECTS_BY_COURSE, key = "#subject.courseId", condition = "#subject.courseId != null")
+    })
+    public void deleteSubject(Subject subject) {
+        subjectRepository.deleteById(subject.getCode());
+    }
+
+    @CacheEvict(cacheNames = MODULES_BY_SUBJECT, key = "#module.subjectCode")
+    public Module saveModule(Module module) {
+        return moduleRepository.save(module);
+    }
+
+    // ==========================================
+    // EVICTION BY AGGREGATE (see CatalogVersionService)
+    // ==========================================
+
+    /** Drops this node's cached course and its subject list, e.g. after another node changed them. */
+    public void evictCourse(String courseId) {
+        evict(COURSE, courseId);
+        evict(SUBJECTS_BY_COURSE, courseId);
+    }
+
+    /** Drops this node's cached subject and its modules. */
+    public void evictSubject(String code) {
+        evict(SUBJECT, code);
+        evict(MODULES_BY_SUBJECT, code);
+    }
+
+    public void evictCourseList() {
+        evict(COURSES, "all");
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) cache.evict(key); // right away outside a transaction, after commit inside one
+    }
+
+    // ==========================================
+    // METRICS
+    // ==========================================
+
+    /** Hit rate, load and eviction counters per cache since startup. */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) cache = decorator.getTargetCache();
+            if (!(cache instanceof CaffeineCache caffeine)) continue;
+            CacheStats s = caffeine.getNativeCache().stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", caffeine.getNativeCache().estimatedSize());
+            entry.put("hits", s.hitCount());
+            entry.put("misses", s.missCount());
+            entry.put("hitRate", s.hitRate());
+            entry.put("loads", s.loadCount());
+            entry.put("averageLoadMillis", s.averageLoadPenalty() / 1_000_000.0);
+            entry.put("evictions", s.evictionCount());
+            stats.put(name, entry);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+
+/**
+ * The change version of one catalog aggregate ("catalog:all", "course:BSIT",
+ * "subject:IT101"), shared by every app node. Moved by
+ * {@link CatalogVersionService} in the same transaction as the change.
+ */
+@Entity
+@Table(name = "catalog_versions")
+public class CatalogVersion {
+
+    @Id
+    @Column(length = 150)
+    private String id; // "<scope>:<id>"; the row "epoch" holds when this database started counting
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "modified_millis", nullable = false)
+    private long modifiedMillis;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public long getModifiedMillis() { return modifiedMillis; }
+    public void setModifiedMillis(long modifiedMillis) { this.modifiedMillis = modifiedMillis; }
+}
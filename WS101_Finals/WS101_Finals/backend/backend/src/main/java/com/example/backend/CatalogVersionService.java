@@ -0,0 +1,230 @@
+package com.example.backend;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Change versions for the course list, each course and each subject, used as
+ * ETag and Last-Modified on the catalog and materials endpoints, so a client
+ * revalidating an unchanged list gets a 304 before any query runs.
+ *
+ * - A subject's version moves when the subject, its modules, quizzes or
+ *   materials change; its course moves with it
+ * - A course's version moves when the course or anything under it changes
+ * - The course list version moves when any course or subject is saved or deleted
+ *
+ * Versions are rows in catalog_versions, moved in the same transaction as the
+ * change (callers must be in one, or the bump runs alone), so every node counts
+ * the same. Reads go through a per-node cache that keeps a stamp for
+ * catalog.versions.cache-ttl-ms; a node therefore answers with the previous
+ * version (and the previous data) for at most that long after another node's
+ * change. When a node sees a version move it evicts its own catalog cache for
+ * that aggregate before loading anything under the new version.
+ *
+ * A read that loaded rows just before a change committed can still put them
+ * into the catalog cache after the eviction, where they would be served under
+ * the new version. So every change is bumped, and evicted, a second time
+ * catalog.versions.settle-ms later: anything cached under the first bump is
+ * revalidated then. Data can therefore be stale under a current ETag for at
+ * most the settle time, never for longer.
+ */
+@Service
+public class CatalogVersionService {
+
+    public static final String CATALOG = "catalog";
+    public static final String COURSE = "course";
+    public static final String SUBJECT = "subject";
+
+    private static final String EPOCH = "epoch";
+
+    private static final String BUMP_SQL =
+            "INSERT INTO catalog_versions (id, version, modified_millis) VALUES (?, 1, ?) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1, modified_millis = GREATEST(?, modified_millis + 1000)";
+
+    /** One aggregate's version and when it last changed. */
+    public record Stamp(long version, long modifiedMillis) {}
+
+    @Autowired private CatalogService catalog;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactions;
+    @Autowired private TaskScheduler scheduler;
+
+    @Value("${catalog.versions.cache-ttl-ms:1000}")
+    private long cacheTtlMillis;
+
+    @Value("${catalog.versions.settle-ms:5000}")
+    private long settleMillis;
+
+    @Value("${catalog.versions.cache-max-entries:10000}")
+    private long maxEntries;
+
+    private LoadingCache<String, Stamp> stamps;
+    private Cache<String, Long> seen; // last version this node loaded, per key
+    private volatile Long epochMillis;
+
+    @PostConstruct
+    public void init() {
+        stamps = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMillis))
+                .maximumSize(maxEntries)
+                .build(this::load);
+        // Forgetting a key only costs one extra eviction when it is next loaded
+        seen = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    // ==========================================
+    // READS
+    // ==========================================
+
+    public Stamp catalog() { return stamps.get(key(CATALOG, "all")); }
+    public Stamp course(String courseId) { return stamps.get(key(COURSE, courseId)); }
+    public Stamp subject(String subjectCode) { return stamps.get(key(SUBJECT, subjectCode)); }
+
+    /** The stamp as a token, e.g. "mfx2k1a0-7"; quoted, it is the ETag. */
+    public String tag(Stamp stamp) {
+        // The time part differs between databases, so a fresh database never repeats an old tag
+        return Long.toString(stamp.modifiedMillis(), 36) + "-" + stamp.version();
+    }
+
+    public String etag(Stamp stamp) {
+        return "\"" + tag(stamp) + "\"";
+    }
+
+    /**
+     * 304 if the request's If-None-Match / If-Modified-Since still match the
+     * stamp (the query is never run); otherwise the query's result with the
+     * stamp's ETag and Last-Modified. Clients must revalidate before reuse.
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, Stamp stamp, Supplier<T> query) {
+        // Also writes the ETag and Last-Modified headers to the response
+        if (request.checkNotModified(etag(stamp), stamp.modifiedMillis())) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(query.get());
+    }
+
+    // ==========================================
+    // BUMPS (inside the write's transaction)
+    // ==========================================
+
+    /** A course was created, edited or deleted. */
+    @Transactional
+    public void courseChanged(String courseId) {
+        bump(key(COURSE, courseId), key(CATALOG, "all"));
+    }
+
+    /** A subject was created, edited or deleted. */
+    @Transactional
+    public void subjectChanged(Subject subject) {
+        bump(key(SUBJECT, subject.getCode()),
+                subject.getCourseId() != null ? key(COURSE, subject.getCourseId()) : null,
+                key(CATALOG, "all"));
+    }
+
+    /** A module, quiz or material of the subject changed. */
+    @Transactional
+    public void subjectContentChanged(String subjectCode) {
+        if (subjectCode == null) return;
+        Subject subject = catalog.getSubject(subjectCode);
+        bump(key(SUBJECT, subjectCode),
+                subject != null && subject.getCourseId() != null ? key(COURSE, subject.getCourseId()) : null);
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private static String key(String scope, String id) {
+        return scope + ":" + id;
+    }
+
+    private void bump(String... keys) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (String key : keys) if (key != null) changed.add(key);
+        write(changed);
+
+        // This node sees its own change as soon as it commits; the second bump catches late cache fills
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(changed);
+                scheduler.schedule(() -> settle(changed), Instant.now().plusMillis(settleMillis));
+            }
+        });
+    }
+
+    private void write(Set<String> keys) {
+        long now = System.currentTimeMillis();
+        // Last-Modified has whole seconds, so each change moves it by at least one
+        for (String key : keys) jdbcTemplate.update(BUMP_SQL, key, now, now);
+    }
+
+    private void settle(Set<String> keys) {
+        try {
+            transactions.executeWithoutResult(tx -> write(keys));
+            invalidate(keys);
+        } catch (Exception e) {
+            System.err.println("Could not settle catalog versions " + keys + ": " + e.getMessage());
+        }
+    }
+
+    private void invalidate(Set<String> keys) {
+        for (String key : keys) {
+            evictCatalog(key);
+            stamps.invalidate(key);
+        }
+    }
+
+    private Stamp load(String key) {
+        List<Stamp> rows = jdbcTemplate.query("SELECT version, modified_millis FROM catalog_versions WHERE id = ?",
+                (rs, n) -> new Stamp(rs.getLong(1), rs.getLong(2)), key);
+        Stamp stamp = rows.isEmpty() ? new Stamp(0, epochMillis()) : rows.get(0);
+
+        // First sight on this node, or another node moved it: what this node cached for it may be older
+        if (!Objects.equals(seen.asMap().put(key, stamp.version()), stamp.version())) evictCatalog(key);
+        return stamp;
+    }
+
+    private void evictCatalog(String key) {
+        int colon = key.indexOf(':');
+        String scope = key.substring(0, colon);
+        String id = key.substring(colon + 1);
+        switch (scope) {
+            case CATALOG -> catalog.evictCourseList();
+            case COURSE -> catalog.evictCourse(id);
+            case SUBJECT -> catalog.evictSubject(id);
+            default -> { }
+        }
+    }
+
+    // When this database started counting; never-changed aggregates carry it as their Last-Modified
+    private long epochMillis() {
+        Long epoch = epochMillis;
+        if (epoch != null) return epoch;
+        jdbcTemplate.update("INSERT IGNORE INTO catalog_versions (id, version, modified_millis) VALUES (?, 0, ?)",
+                EPOCH, System.currentTimeMillis());
+        epoch = jdbcTemplate.queryForObject("SELECT modified_millis FROM catalog_versions WHERE id = ?", Long.class, EPOCH);
+        epochMillis = epoch;
+        return epoch;
+    }
+}
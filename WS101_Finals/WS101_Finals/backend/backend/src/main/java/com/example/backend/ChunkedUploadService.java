@@ -0,0 +1,324 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads for large lesson files: initiate, PUT numbered chunks (in any
+ * order, in parallel), ask which chunks arrived, then complete.
+ *
+ * Each upload is a pre-allocated file that chunks are written into at
+ * index * chunkSize through one shared FileChannel, streaming the request body
+ * through a fixed buffer, so memory use does not depend on file or chunk size.
+ * A chunk counts as received once it is on disk; the received set is mirrored to
+ * a one-byte-per-chunk marks file so uploads survive a restart.
+ *
+ * Chunk writes share an upload's read lock; complete and abort take its write
+ * lock, so they wait for chunks in flight, and a chunk arriving once either has
+ * started is refused with UploadConflictException (409).
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final int COPY_BUFFER = 64 * 1024;
+    private static final int MIN_CHUNK = 1024 * 1024;
+    private static final int MAX_CHUNK = 64 * 1024 * 1024;
+
+    @Autowired private ContentStore contentStore;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Value("${uploads.chunked.dir:uploads/.chunked}")
+    private String stagingDir;
+
+    @Value("${uploads.chunked.default-chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${uploads.chunked.max-size:4294967296}")
+    private long maxSize;
+
+    @Value("${uploads.chunked.expire-hours:24}")
+    private long expireHours;
+
+    private Path staging;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    /** What the client declared when it started; kept as JSON next to the data file. */
+    public record Manifest(String uploadId, String fileName, long size, int chunkSize,
+                           String title, String subjectCode, Long moduleId) {
+        public int chunkCount() {
+            return (int) ((size + chunkSize - 1) / chunkSize);
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+        try (Stream<Path> files = Files.list(staging)) {
+            for (Path manifestFile : files.filter(p -> p.toString().endsWith(".json")).toList()) {
+                String uploadId = manifestFile.getFileName().toString().replace(".json", "");
+                if (!Files.exists(staging.resolve(uploadId + ".data"))) {
+                    // Completed or aborted, but stopped before removing the rest of its files
+                    Files.deleteIfExists(staging.resolve(uploadId + ".marks"));
+                    Files.deleteIfExists(manifestFile);
+                    continue;
+                }
+                try {
+                    Manifest manifest = objectMapper.readValue(manifestFile.toFile(), Manifest.class);
+                    uploads.put(manifest.uploadId(), Upload.open(staging, manifest));
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable upload " + manifestFile.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public Manifest initiate(String fileName, long size, Integer chunkSize, String title, String subjectCode, Long moduleId)
+            throws IOException {
+        if (fileName == null || fileName.isBlank()) throw new IllegalArgumentException("fileName is required");
+        if (size <= 0 || size > maxSize) throw new IllegalArgumentException("size must be between 1 and " + maxSize + " bytes");
+        int chunk = chunkSize == null ? defaultChunkSize : chunkSize;
+        if (chunk < MIN_CHUNK || chunk > MAX_CHUNK) {
+            throw new IllegalArgumentException("chunkSize must be between " + MIN_CHUNK + " and " + MAX_CHUNK + " bytes");
+        }
+
+        Manifest manifest = new Manifest(UUID.randomUUID().toString(), fileName, size, chunk, title, subjectCode, moduleId);
+        objectMapper.writeValue(staging.resolve(manifest.uploadId() + ".json").toFile(), manifest);
+        try (RandomAccessFile data = new RandomAccessFile(staging.resolve(manifest.uploadId() + ".data").toFile(), "rw")) {
+            data.setLength(size); // sparse on most filesystems; reserves the final size up front
+        }
+        uploads.put(manifest.uploadId(), Upload.open(staging, manifest));
+        return manifest;
+    }
+
+    /** Streams one chunk from the request body into its slot. Re-sending a chunk is harmless. */
+    public void writeChunk(String uploadId, int index, InputStream body) throws IOException {
+        Upload upload = get(uploadId);
+        Manifest manifest = upload.manifest;
+        if (index < 0 || index >= manifest.chunkCount()) throw new IllegalArgumentException("Chunk index out of range");
+
+        Lock shared = upload.lock.readLock();
+        if (!shared.tryLock()) throw new UploadConflictException("Upload " + uploadId + " is being completed or aborted");
+        try {
+            if (upload.finished) throw new UploadConflictException("Upload " + uploadId + " is already completed or aborted");
+            copyChunk(upload, index, body);
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    private void copyChunk(Upload upload, int index, InputStream body) throws IOException {
+        Manifest manifest = upload.manifest;
+        long offset = (long) index * manifest.chunkSize();
+        long expected = Math.min(manifest.chunkSize(), manifest.size() - offset);
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER);
+        long written = 0;
+        int read;
+        while ((read = body.read(buffer.array(), 0, (int) Math.min(COPY_BUFFER, expected - written + 1))) != -1) {
+            written += read;
+            if (written > expected) throw new IllegalArgumentException("Chunk " + index + " is larger than " + expected + " bytes");
+            buffer.limit(read).position(0);
+            long position = offset + written - read;
+            while (buffer.hasRemaining()) {
+                position += upload.data.write(buffer, position);
+            }
+            buffer.clear();
+        }
+        if (written != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " should be " + expected + " bytes, got " + written);
+        }
+
+        upload.data.force(false);
+        upload.markReceived(index);
+    }
+
+    public Manifest manifest(String uploadId) {
+        return get(uploadId).manifest;
+    }
+
+    /** Received chunks as [first, last] index ranges, e.g. [[0, 41], [43, 50]]. */
+    public Map<String, Object> status(String uploadId) {
+        Upload upload = get(uploadId);
+        List<int[]> ranges = new ArrayList<>();
+        BitSet received = upload.snapshot();
+        for (int start = received.nextSetBit(0); start >= 0; ) {
+            int end = received.nextClearBit(start);
+            ranges.add(new int[]{start, end - 1});
+            start = received.nextSetBit(end);
+        }
+        return Map.of(
+                "uploadId", uploadId,
+                "size", upload.manifest.size(),
+                "chunkSize", upload.manifest.chunkSize(),
+                "chunkCount", upload.manifest.chunkCount(),
+                "receivedChunks", received.cardinality(),
+                "received", ranges
+        );
+    }
+
+    /**
+     * Verifies every chunk arrived and moves the assembled file into the content
+     * store. Returns the manifest and the stored reference; the upload is gone after.
+     * If storing fails (e.g. S3 or the disk errors), every chunk stays received
+     * and complete can be called again.
+     */
+    public Completed complete(String uploadId) throws IOException {
+        Upload upload = get(uploadId);
+        Lock exclusive = upload.lock.writeLock();
+        exclusive.lock();
+        try {
+            if (upload.finished) throw new IllegalArgumentException("Unknown upload: " + uploadId);
+            int missing = upload.manifest.chunkCount() - upload.snapshot().cardinality();
+            if (missing > 0) throw new IllegalArgumentException(missing + " chunk(s) have not been received yet");
+
+            // Chunks that fetched this upload before the lock are refused from now on
+            upload.finished = true;
+            upload.close();
+            String reference;
+            try {
+                reference = contentStore.store(upload.dataFile, upload.manifest.fileName());
+            } catch (IOException | RuntimeException e) {
+                reopen(upload.manifest);
+                throw e;
+            }
+            uploads.remove(uploadId);
+            upload.deleteFiles();
+            return new Completed(upload.manifest, reference);
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    public record Completed(Manifest manifest, String reference) {}
+
+    // The files are untouched after a failed store; a fresh Upload reads the marks back from disk
+    private void reopen(Manifest manifest) {
+        try {
+            uploads.put(manifest.uploadId(), Upload.open(staging, manifest));
+        } catch (IOException e) {
+            uploads.remove(manifest.uploadId()); // picked up again from disk on the next start
+            System.err.println("Could not reopen upload " + manifest.uploadId() + ": " + e.getMessage());
+        }
+    }
+
+    public void abort(String uploadId) throws IOException {
+        Upload upload = uploads.get(uploadId);
+        if (upload == null) return;
+        Lock exclusive = upload.lock.writeLock();
+        exclusive.lock();
+        try {
+            if (upload.finished) return;
+            upload.finished = true;
+            uploads.remove(uploadId);
+            upload.close();
+            upload.deleteFiles();
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    // Abandoned uploads hold a full-size file each; drop them after expire-hours without a chunk
+    @Scheduled(fixedRate = 3600000)
+    public void expireAbandoned() {
+        long cutoff = System.currentTimeMillis() - expireHours * 3_600_000L;
+        for (Upload upload : List.copyOf(uploads.values())) {
+            if (upload.lastActivity < cutoff) {
+                try {
+                    abort(upload.manifest.uploadId());
+                    System.out.println("Expired chunked upload " + upload.manifest.uploadId());
+                } catch (IOException e) {
+                    System.err.println("Failed to expire upload " + upload.manifest.uploadId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Upload get(String uploadId) {
+        Upload upload = uploads.get(uploadId);
+        if (upload == null) throw new IllegalArgumentException("Unknown upload: " + uploadId);
+        upload.lastActivity = System.currentTimeMillis();
+        return upload;
+    }
+
+    private static class Upload {
+        final Manifest manifest;
+        final Path dataFile;
+        final Path marksFile;
+        final Path manifestFile;
+        final FileChannel data;   // positional writes are safe from many threads
+        final FileChannel marks;  // byte i is 1 once chunk i is on disk
+        private final BitSet received; // guarded by itself
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // read: chunk writes; write: complete/abort
+        boolean finished; // completed or aborted, guarded by lock
+        volatile long lastActivity = System.currentTimeMillis();
+
+        private Upload(Manifest manifest, Path dir, BitSet received) throws IOException {
+            this.manifest = manifest;
+            this.dataFile = dir.resolve(manifest.uploadId() + ".data");
+            this.marksFile = dir.resolve(manifest.uploadId() + ".marks");
+            this.manifestFile = dir.resolve(manifest.uploadId() + ".json");
+            this.data = FileChannel.open(dataFile, StandardOpenOption.WRITE);
+            this.marks = FileChannel.open(marksFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.received = received;
+        }
+
+        static Upload open(Path dir, Manifest manifest) throws IOException {
+            BitSet received = new BitSet(manifest.chunkCount());
+            Path marksFile = dir.resolve(manifest.uploadId() + ".marks");
+            if (Files.exists(marksFile)) {
+                byte[] bytes = Files.readAllBytes(marksFile); // one byte per chunk: a few KB at most
+                for (int i = 0; i < bytes.length && i < manifest.chunkCount(); i++) {
+                    if (bytes[i] == 1) received.set(i);
+                }
+            }
+            return new Upload(manifest, dir, received);
+        }
+
+        void markReceived(int index) throws IOException {
+            marks.write(ByteBuffer.wrap(new byte[]{1}), index);
+            synchronized (received) {
+                received.set(index);
+            }
+        }
+
+        BitSet snapshot() {
+            synchronized (received) {
+                return (BitSet) received.clone();
+            }
+        }
+
+        void close() throws IOException {
+            data.close();
+            marks.close();
+        }
+
+        void deleteFiles() throws IOException {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(marksFile);
+            Files.deleteIfExists(manifestFile);
+        }
+    }
+}
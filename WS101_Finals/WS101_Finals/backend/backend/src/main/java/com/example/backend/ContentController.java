@@ -1,7 +1,9 @@
 package com.example.backend;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -9,17 +11,21 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ContentController {
 
-    @Autowired private ModuleRepository moduleRepository;
+    @Autowired private CatalogService catalog;
     @Autowired private LearningMaterialRepository materialRepository;
+    @Autowired private CatalogVersionService versions;
 
     @GetMapping("/modules")
-    public List<Module> getModules(@RequestParam String subjectCode) {
-        return moduleRepository.findBySubjectCodeOrderByModuleNumberAsc(subjectCode);
+    public ResponseEntity<List<Module>> getModules(@RequestParam String subjectCode, WebRequest request) {
+        return versions.respond(request, versions.subject(subjectCode), () -> catalog.getModules(subjectCode));
     }
 
     @GetMapping("/materials")
-    public List<LearningMaterial> getMaterials(@RequestParam String subjectCode, @RequestParam String type, @RequestParam(required = false) Long moduleId) {
-        if (moduleId != null) return materialRepository.findBySubjectCodeAndTypeAndModuleId(subjectCode, type, moduleId);
-        return materialRepository.findBySubjectCodeAndType(subjectCode, type);
+    public ResponseEntity<List<LearningMaterial>> getMaterials(@RequestParam String subjectCode, @RequestParam String type,
+                                                               @RequestParam(required = false) Long moduleId, WebRequest request) {
+        return versions.respond(request, versions.subject(subjectCode), () -> {
+            if (moduleId != null) return materialRepository.findBySubjectCodeAndTypeAndModuleId(subjectCode, type, moduleId);
+            return materialRepository.findBySubjectCodeAndType(subjectCode, type);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.example.backend;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * ETags for uploads and static files. Content-addressed uploads already carry
+ * their SHA-256 in the name and get it as a strong ETag. Older uploads with
+ * other names get a weak one from size and modification time, so serving them
+ * never reads the whole file first. Static files (a fixed set inside the jar)
+ * are hashed once and remembered until their size or modification time changes.
+ */
+@Component
+public class ContentEtags {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    // Least recently used entries go first; keys of changed files are never asked for again
+    private final Cache<String, String> computed = Caffeine.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+    /** The content hash for content-addressed keys, otherwise a weak W/"size-mtime" validator. */
+    public String forBlob(String key, long length, long lastModified) {
+        int dot = key.indexOf('.');
+        String base = dot < 0 ? key : key.substring(0, dot);
+        if (base.matches("[0-9a-f]{64}")) return base;
+
+        return "W/\"" + Long.toString(length, 36) + "-" + Long.toString(lastModified, 36) + "\"";
+    }
+
+    public String forResource(Resource resource) {
+        try {
+            return lookup(resource.getDescription() + "|" + resource.contentLength() + "|" + resource.lastModified(),
+                    resource::getInputStream);
+        } catch (IOException | UncheckedIOException e) {
+            return null; // no ETag; Last-Modified still applies
+        }
+    }
+
+    private String lookup(String key, StreamSource source) {
+        return computed.get(key, k -> hash(source));
+    }
+
+    private static String hash(StreamSource source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(source.open(), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface StreamSource {
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed upload storage. A file is stored once under the SHA-256 of
+ * its bytes plus its extension (e.g. "3f9a...c2.pdf"), and that name is what
+ * LearningMaterial.filePath, Course.image and User.profilePicture hold, so the
+ * existing /uploads/{name} URLs keep working.
+ *
+ * The upload is hashed straight from the multipart temp file first. Content we
+ * already have costs no write at all; new content is handed to the configured
+ * {@link BlobStore}. uploads.dir doubles as the local staging area, so with the
+ * local store a new upload is renamed into place rather than copied.
+ */
+@Service
+public class ContentStore {
+
+    private static final int HASH_BUFFER = 64 * 1024;
+
+    @Autowired private BlobStore blobStore;
+
+    @Value("${uploads.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${uploads.presign-ttl-minutes:15}")
+    private long presignTtlMinutes;
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /** Stores the upload (or finds the identical blob) and returns its reference. */
+    public String store(MultipartFile file) throws IOException {
+        String reference = hash(file::getInputStream) + extensionOf(file.getOriginalFilename());
+        // Touched, so UploadReconciler's age check can't delete it before the new reference is saved
+        if (blobStore.touch(reference)) {
+            deduplicated.increment();
+            return reference;
+        }
+        storeAs(reference, file::transferTo);
+        stored.increment();
+        return reference;
+    }
+
+    /**
+     * Stores a file that is already on disk (e.g. an assembled chunked upload).
+     * The source is moved into place, or deleted once the content is stored or
+     * already exists. If storing fails the source is left as it was, so the
+     * caller can try again.
+     */
+    public String store(Path source, String originalName) throws IOException {
+        String reference = hash(() -> Files.newInputStream(source)) + extensionOf(originalName);
+        if (blobStore.touch(reference)) {
+            deduplicated.increment();
+        } else {
+            blobStore.put(reference, source);
+            stored.increment();
+        }
+        Files.deleteIfExists(source);
+        return reference;
+    }
+
+    /** Stores a file written by the caller (e.g. an image variant) under a given name. */
+    public void storeAs(String reference, Transfer transfer) throws IOException {
+        Path temp = staging().resolve(".tmp-" + UUID.randomUUID());
+        try {
+            transfer.to(temp);
+            blobStore.put(reference, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ==========================================
+    // READING
+    // ==========================================
+
+    /** Size and modification time of a stored file, or null if it is missing or the reference is not a plain name. */
+    public BlobStore.BlobInfo stat(String reference) throws IOException {
+        return isValid(reference) ? blobStore.stat(reference) : null;
+    }
+
+    public InputStream open(String reference) throws IOException {
+        return open(reference, 0, -1);
+    }
+
+    /** Streams bytes start..end (inclusive; end < 0 to the end) of a stored file. */
+    public InputStream open(String reference, long start, long end) throws IOException {
+        if (!isValid(reference)) throw new IllegalArgumentException("Invalid file reference: " + reference);
+        return blobStore.open(reference, start, end);
+    }
+
+    /** The stored file on this machine, or null if it is missing or kept remotely. */
+    public Path localFile(String reference) {
+        return isValid(reference) ? blobStore.localFile(reference) : null;
+    }
+
+    /** A presigned URL clients can fetch the file from directly, or null to serve it through the app. */
+    public URI downloadUrl(String reference) {
+        return isValid(reference) ? blobStore.presign(reference, getPresignTtl()) : null;
+    }
+
+    public Duration getPresignTtl() { return Duration.ofMinutes(presignTtlMinutes); }
+    public long getStoredCount() { return stored.sum(); }
+    public long getDeduplicatedCount() { return deduplicated.sum(); }
+
+    // References are flat names; anything with a path or starting with a dot (temp and staging files) is not one
+    private static boolean isValid(String reference) {
+        return reference != null && !reference.isEmpty() && !reference.startsWith(".")
+                && !reference.contains("/") && !reference.contains("\\");
+    }
+
+    private Path staging() throws IOException {
+        return Files.createDirectories(Paths.get(uploadDir).toAbsolutePath().normalize());
+    }
+
+    private static String hash(StreamSource source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+        byte[] buffer = new byte[HASH_BUFFER];
+        try (InputStream in = source.open()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Keeps a short, safe extension so type detection and Content-Type still work
+    private static String extensionOf(String originalName) {
+        if (originalName == null) return "";
+        int dot = originalName.lastIndexOf('.');
+        if (dot < 0) return "";
+        String ext = originalName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.matches("[a-z0-9]{1,10}") ? "." + ext : "";
+    }
+
+    private interface StreamSource {
+        InputStream open() throws IOException;
+    }
+
+    public interface Transfer {
+        void to(Path temp) throws IOException;
+    }
+}
@@ -16,7 +16,8 @@ public class CorsConfig {
                 registry.addMapping("/**") // Allow ALL URLs
                         .allowedOrigins("*") // Allow ALL frontends (localhost, etc.)
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Allow ALL actions
-                        .allowedHeaders("*"); // Allow ALL headers
+                        .allowedHeaders("*") // Allow ALL headers
+                        .exposedHeaders("X-Next-Cursor"); // Let pages read the cursor of keyset-paged lists
             }
         };
     }
@@ -1,6 +1,7 @@
 package com.example.backend;
 
 import jakarta.persistence.*;
+import java.util.Map;
 
 @Entity
 @Table(name = "courses")
@@ -42,4 +43,7 @@ public class Course {
 
     public String getImage() { return image; }
     public void setImage(String image) { this.image = image; }
+
+    // Resized copies, e.g. {"thumb": "<image>?size=thumb", ...}; null when there is no image
+    public Map<String, String> getImageVariants() { return ImageVariant.urlsFor(image); }
 }
\ No newline at end of file
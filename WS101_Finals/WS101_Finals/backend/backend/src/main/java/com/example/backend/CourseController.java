@@ -1,13 +1,18 @@
 package com.example.backend;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.Arrays;
 import java.util.List; // Add this import
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -15,20 +20,50 @@ import java.util.List; // Add this import
 public class CourseController {
 
     @Autowired
-    private CourseRepository courseRepository;
+    private CatalogService catalog;
 
-    @Autowired // Add this for subjects
-    private SubjectRepository subjectRepository;
+    @Autowired
+    private CourseTreeService courseTree;
+
+    @Autowired
+    private CatalogVersionService versions;
 
     @GetMapping("/{id}")
-    public Course getCourse(@PathVariable String id) {
-        // Finds the course or throws an error if missing
-        return courseRepository.findById(id).orElseThrow(() -> new RuntimeException("Course not found"));
+    public ResponseEntity<Course> getCourse(@PathVariable String id, WebRequest request) {
+        return versions.respond(request, versions.course(id), () -> {
+            // Finds the course or throws an error if missing
+            Course course = catalog.getCourse(id);
+            if (course == null) throw new RuntimeException("Course not found");
+            return course;
+        });
     }
 
     // Add this new endpoint for subjects
     @GetMapping("/{id}/subjects")
-    public List<Subject> getSubjectsByCourse(@PathVariable String id) {
-        return subjectRepository.findByCourseId(id);
+    public ResponseEntity<List<Subject>> getSubjectsByCourse(@PathVariable String id, WebRequest request) {
+        return versions.respond(request, versions.course(id), () -> catalog.getSubjectsByCourse(id));
+    }
+
+    // Course -> subjects -> modules -> materials in one call.
+    // depth=subjects|modules|materials (default materials); type=pdf,video,... limits the materials.
+    @GetMapping("/{id}/tree")
+    public ResponseEntity<?> getCourseTree(@PathVariable String id,
+                                           @RequestParam(required = false) String depth,
+                                           @RequestParam(required = false) String type,
+                                           WebRequest request) {
+        CourseTreeService.Depth treeDepth = CourseTreeService.parseDepth(depth);
+        List<String> types = type == null || type.isBlank() ? List.of()
+                : Arrays.stream(type.split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList();
+
+        // Checked before respond(), which writes the ETag and Last-Modified a 404 must not carry
+        if (catalog.getCourse(id) == null) return ResponseEntity.notFound().build();
+
+        // The course version covers everything under the course, so a 304 skips the tree queries
+        CatalogVersionService.Stamp stamp = versions.course(id);
+        return versions.respond(request, stamp, () -> {
+            Map<String, Object> tree = courseTree.getTree(id, treeDepth, types);
+            if (tree != null) tree.put("version", versions.tag(stamp));
+            return tree;
+        });
     }
-}
\ No newline at end of file
+}
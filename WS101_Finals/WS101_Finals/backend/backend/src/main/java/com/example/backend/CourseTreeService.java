@@ -0,0 +1,125 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The whole course → subjects → modules → materials tree in one response,
+ * replacing the page-side waterfall of course, subjects, modules-per-subject
+ * and materials-per-module calls.
+ *
+ * The course and its subjects come from the catalog cache; modules and
+ * materials are each loaded with one {@code IN} query per {@link #BATCH_SIZE}
+ * subjects and grouped in memory, so the query count does not grow with the
+ * size of the course. CourseController stamps the tree with the course's
+ * version from {@link CatalogVersionService}, which is also its ETag.
+ */
+@Service
+public class CourseTreeService {
+
+    static final int BATCH_SIZE = 500; // keeps IN lists well inside driver and optimizer limits
+
+    private static final TypeReference<Map<String, Object>> NODE = new TypeReference<>() {};
+
+    public enum Depth { SUBJECTS, MODULES, MATERIALS }
+
+    @Autowired private CatalogService catalog;
+    @Autowired private ModuleRepository moduleRepository;
+    @Autowired private LearningMaterialRepository materialRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    public static Depth parseDepth(String depth) {
+        if (depth == null || depth.isBlank()) return Depth.MATERIALS;
+        try {
+            return Depth.valueOf(depth.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("depth must be one of subjects, modules, materials");
+        }
+    }
+
+    /**
+     * The tree of one course, or null if there is no such course. Materials can
+     * be limited to some types (e.g. pdf, video); those without a module are
+     * listed on their subject.
+     */
+    public Map<String, Object> getTree(String courseId, Depth depth, List<String> types) {
+        Course course = catalog.getCourse(courseId);
+        if (course == null) return null;
+
+        List<Subject> subjects = catalog.getSubjectsByCourse(courseId);
+        List<String> codes = subjects.stream().map(Subject::getCode).toList();
+
+        Map<String, List<Module>> modulesBySubject = new HashMap<>();
+        if (depth != Depth.SUBJECTS) {
+            for (Module m : inBatches(codes, moduleRepository::findBySubjectCodeInOrderByModuleNumberAsc)) {
+                modulesBySubject.computeIfAbsent(m.getSubjectCode(), k -> new ArrayList<>()).add(m);
+            }
+        }
+
+        Map<Long, List<LearningMaterial>> materialsByModule = new HashMap<>();
+        Map<String, List<LearningMaterial>> unassignedBySubject = new HashMap<>();
+        if (depth == Depth.MATERIALS) {
+            List<LearningMaterial> materials = types == null || types.isEmpty()
+                    ? inBatches(codes, materialRepository::findBySubjectCodeIn)
+                    : inBatches(codes, batch -> materialRepository.findBySubjectCodeInAndTypeIn(batch, types));
+            for (LearningMaterial m : materials) {
+                if (m.getModuleId() != null) {
+                    materialsByModule.computeIfAbsent(m.getModuleId(), k -> new ArrayList<>()).add(m);
+                } else {
+                    unassignedBySubject.computeIfAbsent(m.getSubjectCode(), k -> new ArrayList<>()).add(m);
+                }
+            }
+        }
+
+        List<Map<String, Object>> subjectNodes = new ArrayList<>();
+        for (Subject subject : subjects) {
+            Map<String, Object> subjectNode = node(subject);
+            if (depth != Depth.SUBJECTS) {
+                List<Map<String, Object>> moduleNodes = new ArrayList<>();
+                for (Module module : modulesBySubject.getOrDefault(subject.getCode(), List.of())) {
+                    Map<String, Object> moduleNode = node(module);
+                    if (depth == Depth.MATERIALS) {
+                        moduleNode.put("materials", materialsByModule.getOrDefault(module.getId(), List.of()));
+                    }
+                    moduleNodes.add(moduleNode);
+                }
+                subjectNode.put("modules", moduleNodes);
+            }
+            if (depth == Depth.MATERIALS) {
+                subjectNode.put("materials", unassignedBySubject.getOrDefault(subject.getCode(), List.of()));
+            }
+            subjectNodes.add(subjectNode);
+        }
+
+        Map<String, Object> tree = node(course);
+        tree.put("subjects", subjectNodes);
+        return tree;
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private static <T> List<T> inBatches(List<String> keys, Function<List<String>, List<T>> query) {
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += BATCH_SIZE) {
+            results.addAll(query.apply(keys.subList(i, Math.min(keys.size(), i + BATCH_SIZE))));
+        }
+        return results;
+    }
+
+    // Entity fields as Jackson would write them, so the nodes match the other endpoints
+    private Map<String, Object> node(Object entity) {
+        return new LinkedHashMap<>(objectMapper.convertValue(entity, NODE));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+
+/**
+ * One dashboard count, e.g. the students of a course or the users with a role.
+ * Counters are adjusted in the same transaction as the rows they count and
+ * rebuilt from scratch by {@link DashboardCounterService#reconcile()}.
+ */
+@Entity
+@Table(name = "dashboard_counters", indexes = {
+        @Index(name = "idx_dashboard_counters_scope", columnList = "scope, scope_id")
+})
+public class DashboardCounter {
+
+    public static final String COURSE = "course";
+    public static final String SUBJECT = "subject";
+    public static final String ROLE = "role";
+
+    public static final String STUDENTS = "students";
+    public static final String SUBJECTS = "subjects";
+    public static final String LESSONS = "lessons";
+    public static final String USERS = "users";
+
+    @Id
+    @Column(length = 150)
+    private String id; // "<scope>:<scopeId>:<name>", e.g. "course:BSIT:students"
+
+    @Column(nullable = false, length = 10)
+    private String scope; // "course", "subject" or "role"
+
+    @Column(name = "scope_id", nullable = false, length = 100)
+    private String scopeId;
+
+    @Column(nullable = false, length = 20)
+    private String name;
+
+    @Column(name = "counter_value", nullable = false)
+    private long value;
+
+    public static String idOf(String scope, String scopeId, String name) {
+        return scope + ":" + scopeId + ":" + name;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public String getScopeId() { return scopeId; }
+    public void setScopeId(String scopeId) { this.scopeId = scopeId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getValue() { return value; }
+    public void setValue(long value) { this.value = value; }
+}
@@ -0,0 +1,14 @@
+package com.example.backend;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DashboardCounterRepository extends JpaRepository<DashboardCounter, String> {
+
+    List<DashboardCounter> findByScopeAndScopeId(String scope, String scopeId);
+
+    List<DashboardCounter> findByScope(String scope);
+}
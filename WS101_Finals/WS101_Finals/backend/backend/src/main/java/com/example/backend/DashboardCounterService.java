@@ -0,0 +1,213 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Dashboard counts kept up to date as rows change, so the professor and admin
+ * dashboards read a few counter rows instead of counting users, subjects and
+ * learning materials on every load.
+ *
+ * - Per course: students, subjects and lessons (materials of its subjects)
+ * - Per subject: lessons, so a subject's lessons can move with it
+ * - Per role: users
+ *
+ * The update methods must run inside the caller's transaction, together with
+ * the write they account for, so a rolled-back write never moves a counter.
+ * {@link #reconcile()} recomputes everything from the tables.
+ */
+@Service
+public class DashboardCounterService {
+
+    // Never below zero, whether the row is new or not (the delta is bound twice)
+    private static final String ADD_SQL =
+            "INSERT INTO dashboard_counters (id, scope, scope_id, name, counter_value) VALUES (?, ?, ?, ?, GREATEST(0, ?)) " +
+            "ON DUPLICATE KEY UPDATE counter_value = GREATEST(0, counter_value + ?)";
+    private static final String SET_SQL =
+            "INSERT INTO dashboard_counters (id, scope, scope_id, name, counter_value) VALUES (?, ?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE counter_value = new.counter_value";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DashboardCounterRepository counterRepository;
+    @Autowired private CatalogService catalog;
+
+    // Existing installs start with an empty table
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (counterRepository.count() == 0) reconcile();
+    }
+
+    // ==========================================
+    // UPDATES (inside the caller's transaction)
+    // ==========================================
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userAdded(User user) {
+        addUser(user.getRole(), user.getCourseId(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userRemoved(User user) {
+        addUser(user.getRole(), user.getCourseId(), -1);
+    }
+
+    /** After an edit that may have changed the user's role or course. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userChanged(String previousRole, String previousCourseId, User user) {
+        if (Objects.equals(previousRole, user.getRole())
+                && Objects.equals(previousCourseId, user.getCourseId())) return;
+        addUser(previousRole, previousCourseId, -1);
+        addUser(user.getRole(), user.getCourseId(), 1);
+    }
+
+    // A subject brings its lessons into its course's count, and takes them along when deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subjectAdded(Subject subject) {
+        if (subject.getCourseId() == null) return;
+        add(DashboardCounter.COURSE, subject.getCourseId(), DashboardCounter.SUBJECTS, 1);
+        long lessons = get(DashboardCounter.SUBJECT, subject.getCode(), DashboardCounter.LESSONS);
+        if (lessons != 0) add(DashboardCounter.COURSE, subject.getCourseId(), DashboardCounter.LESSONS, lessons);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subjectRemoved(Subject subject) {
+        if (subject.getCourseId() == null) return;
+        add(DashboardCounter.COURSE, subject.getCourseId(), DashboardCounter.SUBJECTS, -1);
+        long lessons = get(DashboardCounter.SUBJECT, subject.getCode(), DashboardCounter.LESSONS);
+        if (lessons != 0) add(DashboardCounter.COURSE, subject.getCourseId(), DashboardCounter.LESSONS, -lessons);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lessonAdded(String subjectCode) {
+        addLesson(subjectCode, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lessonRemoved(String subjectCode) {
+        addLesson(subjectCode, -1);
+    }
+
+    // ==========================================
+    // READS
+    // ==========================================
+
+    /** students, subjects and lessons of one course (0 when never counted). */
+    public Map<String, Long> getCourseCounts(String courseId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put(DashboardCounter.STUDENTS, 0L);
+        counts.put(DashboardCounter.SUBJECTS, 0L);
+        counts.put(DashboardCounter.LESSONS, 0L);
+        for (DashboardCounter c : counterRepository.findByScopeAndScopeId(DashboardCounter.COURSE, courseId)) {
+            counts.put(c.getName(), c.getValue());
+        }
+        return counts;
+    }
+
+    /** Users per role. */
+    public Map<String, Long> getRoleCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (DashboardCounter c : counterRepository.findByScope(DashboardCounter.ROLE)) {
+            if (c.getValue() != 0) counts.put(c.getScopeId(), c.getValue());
+        }
+        return counts;
+    }
+
+    // ==========================================
+    // RECONCILE
+    // ==========================================
+
+    /**
+     * Replaces every counter with an exact count from the tables. A write that
+     * commits while this runs can be missed until the next run.
+     */
+    @Transactional
+    public Map<String, Object> reconcile() {
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        collect(rows, DashboardCounter.COURSE, DashboardCounter.STUDENTS,
+                "SELECT course_id, COUNT(*) FROM users WHERE LOWER(role) = 'student' AND course_id IS NOT NULL GROUP BY course_id");
+        collect(rows, DashboardCounter.COURSE, DashboardCounter.SUBJECTS,
+                "SELECT course_id, COUNT(*) FROM subjects WHERE course_id IS NOT NULL GROUP BY course_id");
+        collect(rows, DashboardCounter.COURSE, DashboardCounter.LESSONS,
+                "SELECT s.course_id, COUNT(*) FROM learning_materials m JOIN subjects s ON s.code = m.subject_code " +
+                "WHERE s.course_id IS NOT NULL GROUP BY s.course_id");
+        collect(rows, DashboardCounter.SUBJECT, DashboardCounter.LESSONS,
+                "SELECT subject_code, COUNT(*) FROM learning_materials WHERE subject_code IS NOT NULL GROUP BY subject_code");
+        collect(rows, DashboardCounter.ROLE, DashboardCounter.USERS,
+                "SELECT LOWER(role), COUNT(*) FROM users WHERE role IS NOT NULL GROUP BY LOWER(role)");
+
+        // Counters with nothing left to count go back to zero
+        Set<String> seen = new HashSet<>();
+        for (Object[] row : rows) seen.add((String) row[0]);
+        int zeroed = 0;
+        for (DashboardCounter c : counterRepository.findAll()) {
+            if (!seen.contains(c.getId()) && c.getValue() != 0) {
+                rows.add(row(c.getScope(), c.getScopeId(), c.getName(), 0));
+                zeroed++;
+            }
+        }
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(SET_SQL, rows);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("counters", rows.size());
+        result.put("zeroed", zeroed);
+        result.put("millis", System.currentTimeMillis() - started);
+        System.out.println("Dashboard counters reconciled: " + result);
+        return result;
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private void addUser(String role, String courseId, long delta) {
+        if (role == null) return;
+        // "Student" and "student" are the same role; the counters and reconcile both use lower case
+        String key = role.toLowerCase(Locale.ROOT);
+        add(DashboardCounter.ROLE, key, DashboardCounter.USERS, delta);
+        if ("student".equals(key) && courseId != null) {
+            add(DashboardCounter.COURSE, courseId, DashboardCounter.STUDENTS, delta);
+        }
+    }
+
+    private void addLesson(String subjectCode, long delta) {
+        if (subjectCode == null) return;
+        add(DashboardCounter.SUBJECT, subjectCode, DashboardCounter.LESSONS, delta);
+        Subject subject = catalog.getSubject(subjectCode);
+        if (subject != null && subject.getCourseId() != null) {
+            add(DashboardCounter.COURSE, subject.getCourseId(), DashboardCounter.LESSONS, delta);
+        }
+    }
+
+    private void add(String scope, String scopeId, String name, long delta) {
+        jdbcTemplate.update(ADD_SQL, DashboardCounter.idOf(scope, scopeId, name), scope, scopeId, name, delta, delta);
+    }
+
+    private long get(String scope, String scopeId, String name) {
+        return counterRepository.findById(DashboardCounter.idOf(scope, scopeId, name))
+                .map(DashboardCounter::getValue).orElse(0L);
+    }
+
+    private void collect(List<Object[]> rows, String scope, String name, String sql) {
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> rows.add(row(scope, rs.getString(1), name, rs.getLong(2))));
+    }
+
+    private static Object[] row(String scope, String scopeId, String name, long value) {
+        return new Object[]{DashboardCounter.idOf(scope, scopeId, name), scope, scopeId, name, value};
+    }
+}
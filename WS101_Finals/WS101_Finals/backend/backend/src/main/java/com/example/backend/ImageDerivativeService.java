@@ -0,0 +1,214 @@
+package com.example.backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link ImageVariant} copies of uploaded course images and
+ * profile pictures in the background, next to the original
+ * (e.g. "3f9a...c2.jpg" gets "3f9a...c2_thumb.jpg").
+ *
+ * Work runs on a small fixed pool with a bounded queue; when the queue is full
+ * the job is skipped and simply retried the next time someone asks for a missing
+ * variant. Until a variant exists, MediaController serves the original.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final long MAX_PIXELS = 50_000_000L; // refuse decompression bombs
+    private static final float JPEG_QUALITY = 0.82f;
+
+    @Autowired private ContentStore contentStore;
+
+    @Value("${images.derivatives.workers:2}")
+    private int workers;
+
+    @Value("${images.derivatives.queue-size:200}")
+    private int queueSize;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "image-derivatives-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1); // never compete with request handling
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /** Queues variant generation for an uploaded image; a no-op for other files or if already queued. */
+    public void submit(String reference) {
+        if (!ImageVariant.isImage(reference) || isVariant(reference) || !inFlight.add(reference)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(reference);
+                } catch (Exception e) {
+                    System.err.println("Could not create image variants for " + reference + ": " + e.getMessage());
+                } finally {
+                    inFlight.remove(reference);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(reference); // queue full; the next request for a variant re-submits
+        }
+    }
+
+    private static boolean isVariant(String reference) {
+        for (ImageVariant v : ImageVariant.values()) {
+            if (reference.contains("_" + v.key() + ".")) return true;
+        }
+        return false;
+    }
+
+    public static String variantName(String reference, ImageVariant variant) {
+        int dot = reference.lastIndexOf('.');
+        String base = dot < 0 ? reference : reference.substring(0, dot);
+        String ext = dot < 0 ? "" : reference.substring(dot + 1).toLowerCase(Locale.ROOT);
+        String outExt = ext.equals("png") || ext.equals("gif") ? "png" : "jpg"; // keep transparency
+        return base + "_" + variant.key() + "." + outExt;
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private void generate(String reference) throws IOException {
+        if (contentStore.stat(reference) == null) return;
+
+        // Largest first; each smaller variant is scaled from the previous one instead of the original
+        BufferedImage source;
+        try (InputStream in = contentStore.open(reference)) {
+            source = read(in, ImageVariant.FULL.getMaxSide());
+        }
+        if (source == null) return;
+        ImageVariant[] variants = {ImageVariant.FULL, ImageVariant.CARD, ImageVariant.THUMB};
+        for (ImageVariant variant : variants) {
+            String target = variantName(reference, variant);
+            source = scale(source, variant.getMaxSide());
+            if (contentStore.stat(target) == null) {
+                BufferedImage image = source;
+                contentStore.storeAs(target, temp -> write(image, temp, target.endsWith(".png")));
+            }
+        }
+    }
+
+    // Decodes with source subsampling so a 12 MP photo never has to be fully inflated
+    private BufferedImage read(InputStream source, int targetMaxSide) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException("Image is too large (" + width + "x" + height + ")");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int factor = Math.max(1, Math.max(width, height) / (targetMaxSide * 2));
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int maxSide) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= maxSide) return image;
+
+        double ratio = (double) maxSide / longest;
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // Written to a staging file that ContentStore then moves into the blob store
+    private static void write(BufferedImage image, Path file, boolean png) throws IOException {
+        if (png) {
+            ImageIO.write(image, "png", file.toFile());
+        } else {
+            writeJpeg(toRgb(image), file);
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // The JPEG writer rejects images with an alpha channel
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+}
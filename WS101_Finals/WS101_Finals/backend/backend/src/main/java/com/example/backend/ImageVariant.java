@@ -0,0 +1,65 @@
+package com.example.backend;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resized copies generated for uploaded images, bounded by their longest side.
+ * Clients ask for one with /uploads/{image}?size=thumb|card|full.
+ */
+public enum ImageVariant {
+    THUMB(160),
+    CARD(480),
+    FULL(1600);
+
+    private final int maxSide;
+
+    ImageVariant(int maxSide) {
+        this.maxSide = maxSide;
+    }
+
+    public int getMaxSide() { return maxSide; }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ImageVariant fromKey(String key) {
+        for (ImageVariant v : values()) {
+            if (v.key().equalsIgnoreCase(key)) return v;
+        }
+        return null;
+    }
+
+    public static boolean isImage(String reference) {
+        if (reference == null) return false;
+        String name = reference.toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png")
+                || name.endsWith(".gif") || name.endsWith(".bmp");
+    }
+
+    /**
+     * For a generated variant name such as "3f9a...c2_thumb.jpg", the original's
+     * name without its extension ("3f9a...c2"); null for anything else.
+     */
+    public static String originalBaseOf(String name) {
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        for (ImageVariant v : values()) {
+            String suffix = "_" + v.key();
+            if (base.endsWith(suffix)) return base.substring(0, base.length() - suffix.length());
+        }
+        return null;
+    }
+
+    /** Variant URLs (relative to /uploads/) for an image reference, or null for non-images. */
+    public static Map<String, String> urlsFor(String reference) {
+        if (!isImage(reference)) return null;
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant v : values()) {
+            urls.put(v.key(), reference + "?size=" + v.key());
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores activity logs in the activity_logs table with JDBC batch inserts, and
+ * reads pages straight from JDBC into a JSON array on the response stream, one
+ * row at a time, so memory use does not depend on the page size.
+ *
+ * Pages are keyset-ordered by (timestamp, id) descending: pass the id of the
+ * last row received as {@code afterId} to continue. Filters are equalities, so
+ * an index led by the filtered columns and ending in timestamp returns rows
+ * already in page order; see the indexes on {@link ActivityLog}.
+ */
+@Component
+@ConditionalOnProperty(name = "activity-log.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcActivityLogStore implements ActivityLogStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO activity_logs (username, action, role, timestamp) VALUES (?, ?, ?, ?)";
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    private JdbcTemplate streamingJdbc;
+
+    @PostConstruct
+    public void init() {
+        streamingJdbc = streaming(dataSource);
+    }
+
+    // MySQL: a fetch size of Integer.MIN_VALUE streams rows instead of buffering the result set
+    static JdbcTemplate streaming(DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.setFetchSize(Integer.MIN_VALUE);
+        return jdbc;
+    }
+
+    @Override
+    public void append(List<ActivityLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, log) -> {
+            ps.setString(1, log.getUsername());
+            ps.setString(2, log.getAction());
+            ps.setString(3, log.getRole());
+            ps.setTimestamp(4, Timestamp.valueOf(log.getTimestampTime()));
+        });
+    }
+
+    @Override
+    public void writePage(ActivityLogFilter filter, Long afterId, int limit, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            writeRows(streamingJdbc, filter, afterId, null, limit, json);
+            json.writeEndArray();
+        }
+    }
+
+    @Override
+    public void checkCursor(long afterId) {
+        findTimestamp(jdbcTemplate, afterId);
+    }
+
+    /**
+     * Writes up to {@code limit} matching rows as JSON objects into an open
+     * array and returns how many were written. {@code belowId}, when set, also
+     * limits the page to ids below it (SegmentedActivityLogStore reads archived
+     * rows this way, after its own segments).
+     *
+     * With several actions, each one is read as its own index range of at most
+     * {@code limit} rows and the ranges are merged (UNION ALL), so the page never
+     * sorts more than actions × limit rows.
+     */
+    static int writeRows(JdbcTemplate jdbc, ActivityLogFilter filter, Long afterId, Long belowId, int limit,
+                         JsonGenerator json) {
+        StringBuilder conditions = new StringBuilder();
+        List<Object> conditionArgs = new ArrayList<>();
+
+        if (filter.username() != null) {
+            conditions.append(" AND username = ?");
+            conditionArgs.add(filter.username());
+        }
+        if (filter.role() != null) {
+            sql.append(" AND role = ?");
+            args.add(filter.role());
+        }
+        if (filter.from() != null) {
+            conditions.append(" AND timestamp >= ?");
+            conditionArgs.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.append(" AND timestamp < ?");
+            conditionArgs.add(Timestamp.valueOf(filter.to()));
+        }
+        if (belowId != null) {
+            conditions.append(" AND id < ?");
+            conditionArgs.add(belowId);
+        }
+        if (afterId != null) {
+            Timestamp afterTimestamp = findTimestamp(jdbc, afterId);
+            conditions.append(" AND (timestamp < ? OR (timestamp = ? AND id < ?))");
+            conditionArgs.add(afterTimestamp);
+            conditionArgs.add(afterTimestamp);
+            conditionArgs.add(afterId);
+        }
+
+        String select = "SELECT id, username, action, role, timestamp FROM activity_logs WHERE 1 = 1";
+        String order = " ORDER BY timestamp DESC, id DESC LIMIT ?";
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        if (filter.actions().size() <= 1) {
+            sql.append(select);
+            if (!filter.actions().isEmpty()) {
+                sql.append(" AND action = ?");
+                args.add(filter.actions().get(0));
+            }
+            sql.append(conditions).append(order);
+            args.addAll(conditionArgs);
+        } else {
+            sql.append("SELECT * FROM (");
+            for (String action : filter.actions()) {
+                if (!args.isEmpty()) sql.append(" UNION ALL ");
+                sql.append('(').append(select).append(" AND action = ?").append(conditions).append(order).append(')');
+                args.add(action);
+                args.addAll(conditionArgs);
+                args.add(limit);
+            }
+            sql.append(") merged").append(order);
+        }
+        args.add(limit);
+
+        int[] written = {0};
+        jdbc.query(sql.toString(), rs -> {
+            try {
+                Timestamp timestamp = rs.getTimestamp("timestamp");
+                ActivityLogStore.writeEntry(json, rs.getLong("id"), rs.getString("username"),
+                        rs.getString("action"), rs.getString("role"),
+                        timestamp == null ? null : timestamp.toLocalDateTime());
+                written[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // client went away; abort the query
+            }
+        }, args.toArray());
+        return written[0];
+    }
+
+    static Timestamp findTimestamp(JdbcTemplate jdbc, Long id) {
+        try {
+            return jdbc.queryForObject("SELECT timestamp FROM activity_logs WHERE id = ?", Timestamp.class, id);
+        } catch (EmptyResultDataAccessException e) {
+            throw new IllegalArgumentException("Unknown log id: " + id);
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.example.backend;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "learning_materials")
+@Table(name = "learning_materials", indexes = {
+        // Leading subject_code also serves subject-only lookups
+        @Index(name = "idx_learning_materials_subject_module", columnList = "subject_code, module_id"),
+        @Index(name = "idx_learning_materials_subject_type_module", columnList = "subject_code, type, module_id")
+})
 public class LearningMaterial {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +24,14 @@ public class LearningMaterial {
     @Column(name = "module_id")
     private Long moduleId;
 
+    // PDFs only; filled in by PdfPreviewService after upload
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    // Bytes of the stored file, counted towards subject and course storage; null for quiz links
+    @Column(name = "file_size")
+    private Long fileSize;
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -38,4 +50,10 @@ public class LearningMaterial {
 
     public Long getModuleId() { return moduleId; }
     public void setModuleId(Long moduleId) { this.moduleId = moduleId; }
-}
\ No newline at end of file
+
+    public Integer getPageCount() { return pageCount; }
+    public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+}
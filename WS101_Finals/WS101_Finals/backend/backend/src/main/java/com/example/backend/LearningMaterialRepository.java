@@ -1,7 +1,11 @@
 package com.example.backend;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Repository
@@ -10,7 +14,17 @@ public interface LearningMaterialRepository extends JpaRepository<LearningMateri
     // Existing filter methods
     List<LearningMaterial> findBySubjectCodeAndType(String subjectCode, String type);
     List<LearningMaterial> findBySubjectCodeAndTypeAndModuleId(String subjectCode, String type, Long moduleId);
+    List<LearningMaterial> findBySubjectCode(String subjectCode);
+    List<LearningMaterial> findBySubjectCodeAndModuleId(String subjectCode, Long moduleId);
+    List<LearningMaterial> findBySubjectCodeIn(List<String> subjectCodes);
+    List<LearningMaterial> findBySubjectCodeInAndTypeIn(List<String> subjectCodes, List<String> types);
 
     // ✅ NEW: Count all materials where the Subject Code is in a specific list
     long countBySubjectCodeIn(List<String> subjectCodes);
+
+    // Touches only page_count, so a background update cannot overwrite other edits
+    @Modifying
+    @Transactional
+    @Query("UPDATE LearningMaterial m SET m.pageCount = :pageCount WHERE m.id = :id")
+    int updatePageCount(@Param("id") Long id, @Param("pageCount") Integer pageCount);
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.example.backend;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Blobs on the local disk under uploads.dir, fanned out by the SHA-256 of the
+ * key into nested two-hex-digit directories ("ab/cd/3f9a...c2.pdf" with the
+ * default two levels), so no directory grows past a few hundred entries.
+ *
+ * Files left flat in uploads.dir by older versions are moved into their shard
+ * at startup. Presigned URLs are only available when a web server in front
+ * (e.g. nginx with secure_link) serves uploads.dir at uploads.local.public-base-url.
+ */
+@Component
+@ConditionalOnProperty(name = "uploads.store", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    @Value("${uploads.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${uploads.local.fanout-levels:2}")
+    private int fanoutLevels;
+
+    @Value("${uploads.local.public-base-url:}")
+    private String publicBaseUrl;
+
+    @Value("${uploads.local.signing-secret:}")
+    private String signingSecret;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        migrateFlatFiles();
+    }
+
+    @Override
+    public BlobInfo stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(pathFor(key), BasicFileAttributes.class);
+            return attrs.isRegularFile() ? new BlobInfo(attrs.size(), attrs.lastModifiedTime().toMillis()) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = pathFor(key);
+        Files.createDirectories(target.getParent());
+        // A rename when the source is on the same disk; the temp name keeps readers off a partial copy
+        Path temp = target.resolveSibling(".tmp-" + UUID.randomUUID());
+        try {
+            Files.move(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.move(temp, source, StandardCopyOption.REPLACE_EXISTING); // leave it for a retry
+                throw e;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public boolean touch(String key) throws IOException {
+        try {
+            Files.setLastModifiedTime(pathFor(key), FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(pathFor(key), StandardOpenOption.READ);
+        channel.position(start);
+        InputStream in = Channels.newInputStream(channel);
+        return end < 0 ? in : new RangeInputStream(in, end - start + 1);
+    }
+
+    // Walks only the shard directories; dot-directories (.chunked, .previews) and temp files are skipped
+    @Override
+    public void forEach(BlobVisitor visitor) throws IOException {
+        Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), fanoutLevels + 1, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && dir.getFileName().toString().startsWith(".")
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String key = file.getFileName().toString();
+                if (attrs.isRegularFile() && !key.startsWith(".") && root.relativize(file).getNameCount() == fanoutLevels + 1) {
+                    visitor.visit(key, new BlobInfo(attrs.size(), attrs.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE; // e.g. removed while walking
+            }
+        });
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(pathFor(key));
+    }
+
+    /**
+     * nginx secure_link URL, matching
+     * {@code secure_link $arg_md5,$arg_expires; secure_link_md5 "$secure_link_expires$uri <secret>";}
+     */
+    @Override
+    public URI presign(String key, Duration ttl) {
+        if (publicBaseUrl.isBlank() || signingSecret.isBlank()) return null;
+        URI url = URI.create(publicBaseUrl.replaceAll("/+$", "") + "/" + root.relativize(pathFor(key)).toString().replace('\\', '/'));
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        byte[] md5 = digest("MD5", expires + url.getRawPath() + " " + signingSecret);
+        String signature = Base64.getUrlEncoder().withoutPadding().encodeToString(md5);
+        return URI.create(url + "?md5=" + signature + "&expires=" + expires);
+    }
+
+    @Override
+    public Path localFile(String key) {
+        Path file = pathFor(key);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private Path pathFor(String key) {
+        byte[] hash = digest("SHA-256", key);
+        Path dir = root;
+        for (int level = 0; level < fanoutLevels; level++) {
+            dir = dir.resolve(HexFormat.of().toHexDigits(hash[level]));
+        }
+        return dir.resolve(key);
+    }
+
+    // Older versions wrote every upload straight into uploads.dir
+    private void migrateFlatFiles() throws IOException {
+        int moved = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, p -> Files.isRegularFile(p))) {
+            for (Path file : entries) {
+                String key = file.getFileName().toString();
+                if (key.startsWith(".")) continue; // temp files
+                Path target = pathFor(key);
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                moved++;
+            }
+        }
+        if (moved > 0) System.out.println("Moved " + moved + " upload(s) into sharded directories under " + root);
+    }
+
+    private static byte[] digest(String algorithm, String text) {
+        try {
+            return MessageDigest.getInstance(algorithm).digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships MD5 and SHA-256
+        }
+    }
+
+    // Stops after a fixed number of bytes, for range reads
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) remaining -= read;
+            return read;
+        }
+    }
+}
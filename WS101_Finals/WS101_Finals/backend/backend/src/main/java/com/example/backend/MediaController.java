@@ -0,0 +1,164 @@
+package com.example.backend;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serves uploaded files (lesson videos, PDFs, images) from /uploads/**.
+ *
+ * - Single byte ranges get 206 Partial Content, so videos can be seeked
+ * - Strong ETag (content hash) and Last-Modified, with 304 on revalidation
+ * - Uploads never change under a name, so responses are cacheable for a year
+ * - Images accept ?size=thumb|card|full (see {@link ImageDerivativeService})
+ * - Blob stores that presign (S3, or local behind nginx) get a redirect instead,
+ *   so the bytes never pass through this server
+ * - Local bodies go out with Tomcat sendfile when available, else FileChannel.transferTo
+ */
+@RestController
+public class MediaController {
+
+    // Below this, a plain copy is cheaper than handing the file to the poller (Tomcat's own default)
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    @Autowired private ContentStore contentStore;
+    @Autowired private ContentEtags contentEtags;
+    @Autowired private ImageDerivativeService imageDerivatives;
+
+    @RequestMapping(value = "/uploads/{*path}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable String path, @RequestParam(required = false) String size,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String reference = path.startsWith("/") ? path.substring(1) : path;
+        BlobStore.BlobInfo info = contentStore.stat(reference);
+        if (info == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // ?size=thumb|card|full: the resized copy if it exists yet, otherwise the original,
+        // marked for revalidation so the browser switches once the copy is ready
+        String key = reference;
+        String cacheControl = CACHE_CONTROL;
+        ImageVariant variant = size == null ? null : ImageVariant.fromKey(size);
+        if (variant != null && ImageVariant.isImage(reference)) {
+            String generated = ImageDerivativeService.variantName(reference, variant);
+            BlobStore.BlobInfo generatedInfo = contentStore.stat(generated);
+            if (generatedInfo != null) {
+                key = generated;
+                info = generatedInfo;
+            } else {
+                imageDerivatives.submit(reference);
+                cacheControl = REVALIDATE;
+            }
+        }
+
+        // Stores that can hand out presigned URLs serve the bytes themselves
+        URI redirect = contentStore.downloadUrl(key);
+        if (redirect != null) {
+            long maxAge = contentStore.getPresignTtl().toSeconds() / 2; // the cached redirect must not outlive the signature
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.equals(REVALIDATE)
+                    ? REVALIDATE : CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePrivate().getHeaderValue());
+            response.sendRedirect(redirect.toString());
+            return;
+        }
+
+        long length = info.size();
+        long lastModified = info.lastModified();
+        String etag = contentEtags.forBlob(key, length, lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) return; // 304
+
+        String contentType = request.getServletContext().getMimeType(key);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && rangeStillValid(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+                // Multiple ranges are rare for media; the whole file is a valid answer to them
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) return;
+
+        Path file = contentStore.localFile(key);
+        if (file == null) {
+            // Remote blob without presigning: relay the requested bytes
+            try (InputStream in = contentStore.open(key, start, end)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            // Tomcat writes the bytes from the page cache to the socket after we return
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1); // exclusive
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    // If-Range: only honour the range if the client's copy is still the current one
+    private static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        // Entity tags must match strongly, so a weak one never validates a range
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !etag.startsWith("W/") && ifRange.equals("\"" + etag + "\"");
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.example.backend;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "modules")
+@Table(name = "modules", indexes = {
+        @Index(name = "idx_modules_subject_code", columnList = "subject_code")
+})
 public class Module {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
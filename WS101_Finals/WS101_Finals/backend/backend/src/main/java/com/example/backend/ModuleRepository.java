@@ -7,4 +7,6 @@ import java.util.List;
 @Repository
 public interface ModuleRepository extends JpaRepository<Module, Long> {
     List<Module> findBySubjectCodeOrderByModuleNumberAsc(String subjectCode);
+
+    List<Module> findBySubjectCodeInOrderByModuleNumberAsc(List<String> subjectCodes);
 }
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.example.backend;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at"),
+        @Index(name = "idx_notifications_user_read", columnList = "user_id, is_read"),
+        @Index(name = "idx_notifications_created", columnList = "created_at"),
+        @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at")
+})
 public class Notification {
 
+    // Inbox date format (e.g. "2023-10-25 14:30"); built once, formatters are thread-safe
+    public static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -72,9 +81,11 @@ public class Notification {
 
     public String getCreatedAt() {
         if (createdAt == null) return "";
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return createdAt.format(formatter);
+        return createdAt.format(CREATED_AT_FORMAT);
     }
 
+    @JsonIgnore
+    public LocalDateTime getCreatedAtTime() { return createdAt; }
+
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+
+/**
+ * Per-user read watermark: every broadcast with an id at or below
+ * {@code broadcastWatermark} counts as read for this user.
+ */
+@Entity
+@Table(name = "notification_read_marks")
+public class NotificationReadMark {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "broadcast_watermark", nullable = false)
+    private Long broadcastWatermark = 0L;
+
+    public NotificationReadMark() {}
+
+    public NotificationReadMark(Long userId, Long broadcastWatermark) {
+        this.userId = userId;
+        this.broadcastWatermark = broadcastWatermark;
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getBroadcastWatermark() { return broadcastWatermark; }
+    public void setBroadcastWatermark(Long broadcastWatermark) { this.broadcastWatermark = broadcastWatermark; }
+}
@@ -0,0 +1,8 @@
+package com.example.backend;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationReadMarkRepository extends JpaRepository<NotificationReadMark, Long> {
+}
@@ -1,11 +1,13 @@
 package com.example.backend;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,6 +19,28 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     long countByUserIdAndIsReadFalse(Long userId);
 
+    // Keyset pages ordered by (createdAt, id) descending; served by idx_notifications_user_created
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageByUserId(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
+
+    @Query("SELECT n FROM Notification n " +
+           "WHERE n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPage(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Limit limit);
+
+    // Retention: small batches keep each delete's row locks short
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE is_read = true AND created_at < :cutoff LIMIT :batchSize", nativeQuery = true)
+    int deleteReadOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
     @Modifying
     @Transactional
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId")
@@ -24,6 +48,6 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     @Modifying
     @Transactional
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.userId = :userId")
-    void markAsRead(@Param("id") Long id, @Param("userId") Long userId);
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.userId = :userId AND n.isRead = false")
+    int markAsRead(@Param("id") Long id, @Param("userId") Long userId);
 }
\ No newline at end of file
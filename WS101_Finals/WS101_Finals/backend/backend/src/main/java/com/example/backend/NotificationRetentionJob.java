@@ -0,0 +1,130 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes old notifications in small batches so no single DELETE holds row
+ * locks for long. Read personal notifications go after
+ * {@code notifications.retention.read-days}.
+ *
+ * Announcements go after {@code notifications.retention.broadcast-days} once
+ * everyone in their audience has read them, so no inbox loses an unread item,
+ * and after {@code notifications.retention.broadcast-max-days} in any case, so
+ * one user who never opens an "everyone" announcement cannot keep it forever.
+ * Which announcements are fully read is decided by a plain SELECT over a window
+ * of ids (a snapshot read, no locks); only the DELETE by those ids locks rows.
+ * Each run walks the ids between the two ages once, and that range is bounded
+ * by the hard limit.
+ */
+@Component
+public class NotificationRetentionJob {
+
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private BroadcastNotificationRepository broadcastRepository;
+    @Autowired private BroadcastReadRepository broadcastReadRepository;
+    @Autowired private UnreadCountCache unreadCache;
+    @Autowired private TransactionTemplate transactions;
+
+    @Value("${notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.retention.read-days:90}")
+    private int readDays;
+
+    @Value("${notifications.retention.broadcast-days:180}")
+    private int broadcastDays;
+
+    @Value("${notifications.retention.broadcast-max-days:365}")
+    private int broadcastMaxDays;
+
+    @Value("${notifications.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notifications.retention.pause-ms:50}")
+    private long pauseMs;
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void purge() {
+        if (!enabled) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        long notifications = purgeReadNotifications(now.minusDays(readDays));
+        long expired = purgeExpiredBroadcasts(now.minusDays(Math.max(broadcastDays, broadcastMaxDays)));
+        long read = purgeReadBroadcasts(now.minusDays(broadcastDays));
+        System.out.println("Notification retention: removed " + notifications + " read notifications, "
+                + read + " announcements everyone read and " + expired + " expired announcements");
+    }
+
+    private long purgeReadNotifications(LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            // Read rows never count as unread, so the unread cache is unaffected
+            deleted = notificationRepository.deleteReadOlderThan(cutoff, batchSize);
+            total += deleted;
+            pause();
+        } while (deleted == batchSize);
+        return total;
+    }
+
+    private long purgeExpiredBroadcasts(LocalDateTime cutoff) {
+        // Ids grow with creation time, so everything up to this id is past the cutoff
+        long maxId = broadcastRepository.findMaxIdCreatedBefore(cutoff);
+        long total = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = broadcastRepository.findIdsBetween(afterId, maxId, Limit.of(batchSize));
+            if (ids.isEmpty()) break;
+            afterId = ids.getLast();
+            List<Long> batch = ids;
+            // Some of these may still be unread somewhere, so cached counts start over
+            total += unreadCache.resetAfter(() -> delete(batch));
+            pause();
+        } while (ids.size() == batchSize);
+        return total;
+    }
+
+    private long purgeReadBroadcasts(LocalDateTime cutoff) {
+        long maxId = broadcastRepository.findMaxIdCreatedBefore(cutoff);
+        long total = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = broadcastRepository.findIdsBetween(afterId, maxId, Limit.of(batchSize));
+            if (ids.isEmpty()) break;
+            afterId = ids.getLast();
+            // Everyone has read these, so no unread count changes
+            List<Long> readByAll = broadcastRepository.findReadByAllAmong(ids);
+            if (!readByAll.isEmpty()) total += delete(readByAll);
+            pause();
+        } while (ids.size() == batchSize);
+        return total;
+    }
+
+    // The announcements and their read markers, in one short transaction
+    private int delete(List<Long> ids) {
+        return transactions.execute(status -> {
+            int deleted = broadcastRepository.deleteByIds(ids);
+            broadcastReadRepository.deleteByBroadcastIds(ids);
+            return deleted;
+        });
+    }
+
+    // Gives other transactions a window between batches
+    private void pause() {
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Personal notifications are stored one row per user; announcements are stored
+ * once per audience as {@link BroadcastNotification} and merged into each inbox
+ * at read time. Broadcast items are exposed with a negative id so the existing
+ * mark-read endpoint can tell the two apart without changing the JSON shape.
+ *
+ * Unread counts are served from {@link UnreadCountCache}; every write below goes
+ * through the cache so the counter moves together with the committed row.
+ */
+@Service
+public class NotificationService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Newest first; ties broken by inbox id, so personal rows (positive) precede broadcasts (negative)
+    private static final Comparator<Notification> INBOX_ORDER = Comparator
+            .comparing(Notification::getCreatedAtTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Notification::getId, Comparator.reverseOrder());
+
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private BroadcastNotificationRepository broadcastRepository;
+    @Autowired private BroadcastReadRepository broadcastReadRepository;
+    @Autowired private NotificationReadMarkRepository readMarkRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private NotificationStreamService streamService;
+    @Autowired private UnreadCountCache unreadCache;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    // ==========================================
+    // WRITES
+    // ==========================================
+
+    public Notification notifyUser(Long userId, String title, String message, String type, String relatedId) {
+        Notification saved = unreadCache.update(userId,
+                () -> notificationRepository.save(new Notification(userId, title, message, type, relatedId)),
+                n -> count -> count + 1);
+        if (streamService.isConnected(userId)) {
+            streamService.publishToUser(userId, saved, countUnread(userId));
+        }
+        return saved;
+    }
+
+    public BroadcastNotification announce(Audience audience, String title, String message, String type, String relatedId) {
+        BroadcastNotification saved = unreadCache.broadcast(audience, () -> broadcastRepository.save(
+                new BroadcastNotification(audience.role(), audience.courseId(), title, message, type, relatedId)));
+        streamService.publishBroadcast(toNotification(saved, null, false), audience);
+        return saved;
+    }
+
+    public void markAsRead(Long id, Long userId) {
+        if (id >= 0) {
+            unreadCache.update(userId,
+                    () -> notificationRepository.markAsRead(id, userId),
+                    marked -> count -> count - marked);
+        } else {
+            unreadCache.update(userId,
+                    () -> markBroadcastAsRead(-id, userId),
+                    marked -> count -> marked ? count - 1 : count);
+        }
+        publishUnreadCount(userId);
+    }
+
+    // Returns true only when a visible, previously unread broadcast became read
+    private boolean markBroadcastAsRead(long broadcastId, Long userId) {
+        if (broadcastId <= getWatermark(userId)) return false;
+        if (broadcastReadRepository.existsByUserIdAndBroadcastId(userId, broadcastId)) return false;
+
+        BroadcastNotification broadcast = broadcastRepository.findById(broadcastId).orElse(null);
+        User user = userRepository.findById(userId).orElse(null);
+        if (broadcast == null || user == null || !isVisibleTo(broadcast, user)) return false;
+
+        try {
+            broadcastReadRepository.save(new BroadcastRead(userId, broadcastId));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false; // Another request marked it first
+        }
+    }
+
+    public void markAllAsRead(Long userId) {
+        unreadCache.update(userId, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            notificationRepository.markAllAsRead(userId);
+
+            Long watermark = broadcastRepository.findMaxId();
+            readMarkRepository.save(new NotificationReadMark(userId, watermark));
+            broadcastReadRepository.deleteCoveredByWatermark(userId, watermark);
+            return watermark;
+        }), watermark -> count -> 0);
+
+        if (streamService.isConnected(userId)) streamService.publishUnreadCount(userId, 0);
+    }
+
+    /** Call after a user's role or course changes, or the user is deleted. */
+    public void userChanged(Long userId) {
+        unreadCache.invalidate(userId);
+    }
+
+    private void publishUnreadCount(Long userId) {
+        if (streamService.isConnected(userId)) {
+            streamService.publishUnreadCount(userId, countUnread(userId));
+        }
+    }
+
+    // ==========================================
+    // STREAM
+    // ==========================================
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) return null;
+        return streamService.subscribe(user, lastEventId, countUnread(userId));
+    }
+
+    // ==========================================
+    // READS
+    // ==========================================
+
+    /** One page of notifications plus the cursor for the next one (null on the last page). */
+    public record Page(List<Notification> items, String nextCursor) {}
+
+    /**
+     * Keyset page of one user's inbox in (createdAt, id) descending order. Personal
+     * rows and visible broadcasts are each read with the same cursor and merged.
+     */
+    public Page getInboxPage(Long userId, String cursor, int limit) {
+        Cursor after = Cursor.decode(cursor);
+        List<Notification> merged = new ArrayList<>(notificationRepository.findPageByUserId(
+                userId, after.createdAt(), after.id(), Limit.of(limit + 1)));
+
+        User user = userRepository.findById(userId).orElse(null);
+        if (user != null) {
+            long watermark = getWatermark(userId);
+            Set<Long> readIds = new HashSet<>(broadcastReadRepository.findBroadcastIdsByUserId(userId));
+            List<BroadcastNotification> broadcasts = broadcastRepository.findPageVisibleTo(
+                    user.getRole(), user.getCourseId(), joinedAt(user),
+                    after.createdAt(), -after.id(), Limit.of(limit + 1));
+            for (BroadcastNotification b : broadcasts) {
+                boolean read = b.getId() <= watermark || readIds.contains(b.getId());
+                merged.add(toNotification(b, userId, read));
+            }
+            merged.sort(INBOX_ORDER);
+        }
+        return toPage(merged, limit);
+    }
+
+    /**
+     * Keyset page over every notification (admin view): all personal rows plus
+     * every announcement once, unread and without a user, as it was pushed.
+     */
+    public Page getAllPage(String cursor, int limit) {
+        Cursor after = Cursor.decode(cursor);
+        List<Notification> merged = new ArrayList<>(notificationRepository.findPage(
+                after.createdAt(), after.id(), Limit.of(limit + 1)));
+        for (BroadcastNotification b : broadcastRepository.findPage(after.createdAt(), -after.id(), Limit.of(limit + 1))) {
+            merged.add(toNotification(b, null, false));
+        }
+        merged.sort(INBOX_ORDER);
+        return toPage(merged, limit);
+    }
+
+    private Page toPage(List<Notification> rows, int limit) {
+        if (rows.size() <= limit) return new Page(rows, null);
+        List<Notification> items = new ArrayList<>(rows.subList(0, limit));
+        Notification last = items.get(limit - 1);
+        return new Page(items, new Cursor(last.getCreatedAtTime(), last.getId()).encode());
+    }
+
+    public long countUnread(Long userId) {
+        return unreadCache.get(userId, this::loadUnreadCount);
+    }
+
+    public Map<String, Object> getUnreadCacheStats() {
+        return unreadCache.getStats();
+    }
+
+    private UnreadCountCache.Loaded loadUnreadCount(Long userId) {
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) return new UnreadCountCache.Loaded(count, null, null, false);
+
+        count += broadcastRepository.countUnreadVisibleTo(userId, user.getRole(), user.getCourseId(),
+                joinedAt(user), getWatermark(userId));
+        return new UnreadCountCache.Loaded(count, user.getRole(), user.getCourseId(), true);
+    }
+
+    private long getWatermark(Long userId) {
+        return readMarkRepository.findById(userId)
+                .map(NotificationReadMark::getBroadcastWatermark)
+                .orElse(0L);
+    }
+
+    private boolean isVisibleTo(BroadcastNotification b, User user) {
+        return b.audience().matches(user.getRole(), user.getCourseId())
+                && !b.getCreatedAt().isBefore(joinedAt(user));
+    }
+
+    // Users only see announcements made after their account existed, as with per-user rows
+    private LocalDateTime joinedAt(User user) {
+        return user.getCreatedAt() != null ? user.getCreatedAt() : BEGINNING;
+    }
+
+    /** Position after the last item of a page: (createdAt, inbox id), opaque to clients. */
+    private record Cursor(LocalDateTime createdAt, Long id) {
+        static final Cursor START = new Cursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+        static Cursor decode(String value) {
+            if (value == null || value.isBlank()) return START;
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+                return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private Notification toNotification(BroadcastNotification b, Long userId, boolean read) {
+        Notification n = new Notification(userId, b.getTitle(), b.getMessage(), b.getType(), b.getRelatedId());
+        n.setId(-b.getId());
+        n.setIsRead(read);
+        n.setCreatedAt(b.getCreatedAt());
+        return n;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events push for notifications. An idle SseEmitter holds no thread;
+ * each subscriber gets its own queue, drained on a virtual thread, so a slow
+ * client never blocks the request that published the event.
+ *
+ * Event ids are "{boot}-{sequence}". A client reconnecting with a Last-Event-ID
+ * from this boot gets the missed events replayed from a short in-memory history;
+ * anything older (or from a previous boot) gets a "resync" event instead.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L; // clients reconnect transparently
+    private static final int HISTORY_SIZE = 500;
+
+    @Autowired private AudienceIndex audienceIndex;
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Deque<StreamEvent> history = new ArrayDeque<>(); // guarded by itself
+    private long evictedUpTo = 0; // sequence of the newest event dropped from history, guarded by history
+
+    public SseEmitter subscribe(User user, String lastEventId, long unreadCount) {
+        Subscriber subscriber = new Subscriber(user.getId());
+        subscribers.compute(user.getId(), (id, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+
+        replay(subscriber, lastEventId);
+        subscriber.enqueue(new StreamEvent(nextId(), "unread-count", Map.of("count", unreadCount), user.getId(), null));
+        return subscriber.emitter;
+    }
+
+    // ==========================================
+    // PUBLISHING
+    // ==========================================
+
+    public void publishToUser(Long userId, Notification notification, long unreadCount) {
+        StreamEvent event = record(new StreamEvent(nextId(), "notification", notification, userId, null));
+        StreamEvent count = record(new StreamEvent(nextId(), "unread-count", Map.of("count", unreadCount), userId, null));
+        for (Subscriber s : subscribers.getOrDefault(userId, Set.of())) {
+            s.enqueue(event);
+            s.enqueue(count);
+        }
+    }
+
+    public void publishUnreadCount(Long userId, long unreadCount) {
+        StreamEvent count = record(new StreamEvent(nextId(), "unread-count", Map.of("count", unreadCount), userId, null));
+        for (Subscriber s : subscribers.getOrDefault(userId, Set.of())) {
+            s.enqueue(count);
+        }
+    }
+
+    /**
+     * Pushes a broadcast to every connected member of its audience. The payload
+     * carries no user id; clients treat it as one more unread item.
+     */
+    public void publishBroadcast(Notification notification, Audience audience) {
+        StreamEvent event = record(new StreamEvent(nextId(), "notification", notification, null, audience));
+        BitSet members = audienceIndex.resolve(audience);
+        subscribers.forEach((userId, set) -> {
+            if (userId <= Integer.MAX_VALUE && members.get(userId.intValue())) {
+                set.forEach(s -> s.enqueue(event));
+            }
+        });
+    }
+
+    public boolean isConnected(Long userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    public int getConnectionCount() {
+        int count = 0;
+        for (Set<Subscriber> set : subscribers.values()) count += set.size();
+        return count;
+    }
+
+    // Keeps proxies and load balancers from closing idle connections, and prunes dead ones
+    @Scheduled(fixedRate = 20000)
+    public void heartbeat() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber s : set) {
+                s.enqueue(StreamEvent.HEARTBEAT);
+            }
+        }
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private String nextId() {
+        return boot + "-" + sequence.incrementAndGet();
+    }
+
+    private StreamEvent record(StreamEvent event) {
+        synchronized (history) {
+            history.addLast(event);
+            if (history.size() > HISTORY_SIZE) evictedUpTo = parseSequence(history.removeFirst().id);
+        }
+        return event;
+    }
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return;
+
+        long lastSeq = parseSequence(lastEventId);
+        List<StreamEvent> missed = new ArrayList<>();
+        boolean complete;
+        synchronized (history) {
+            // The history can only fill the gap if nothing after lastSeq has been evicted yet
+            complete = lastSeq >= evictedUpTo;
+            if (complete) {
+                for (StreamEvent e : history) {
+                    if (parseSequence(e.id) > lastSeq && isFor(e, subscriber)) missed.add(e);
+                }
+            }
+        }
+
+        if (!complete) {
+            subscriber.enqueue(new StreamEvent(nextId(), "resync", Map.of(), subscriber.userId, null));
+            return;
+        }
+        missed.forEach(subscriber::enqueue);
+    }
+
+    // Returns -1 for ids from another boot or malformed ids
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(boot)) return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private boolean isFor(StreamEvent event, Subscriber s) {
+        if (event.userId != null) return event.userId.equals(s.userId);
+        return audienceIndex.contains(event.audience, s.userId);
+    }
+
+    // Personal events carry a userId; broadcast events carry an audience instead
+    private record StreamEvent(String id, String name, Object data, Long userId, Audience audience) {
+        static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null, null, null);
+    }
+
+    private class Subscriber {
+        final Long userId;
+        final SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        final Queue<StreamEvent> pending = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long userId) {
+            this.userId = userId;
+        }
+
+        void enqueue(StreamEvent event) {
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("sse-" + userId).start(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                StreamEvent event;
+                while ((event = pending.poll()) != null) {
+                    try {
+                        if (event == StreamEvent.HEARTBEAT) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } else {
+                            emitter.send(SseEmitter.event().id(event.id).name(event.name)
+                                    .data(event.data, MediaType.APPLICATION_JSON));
+                        }
+                    } catch (IOException | IllegalStateException e) {
+                        pending.clear();
+                        remove(this);
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An event may have arrived between the last poll and releasing the flag
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
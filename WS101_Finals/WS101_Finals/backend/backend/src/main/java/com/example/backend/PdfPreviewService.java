@@ -0,0 +1,268 @@
+package com.example.backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Renders single pages of PDF materials to small JPEGs on demand, so students
+ * can check a file without downloading all of it.
+ *
+ * - Renders run on a small fixed pool with a bounded queue; when it is full the
+ *   request is rejected (the controller answers 503) rather than piling up
+ * - Concurrent requests for the same page share one render
+ * - Results live in a disk cache capped at {@code previews.max-bytes}, evicting
+ *   the least recently used files; keys come from the stored file name, which
+ *   is a content hash, so identical PDFs share previews
+ * - After an upload, the page count and first-page thumbnail are precomputed
+ */
+@Service
+public class PdfPreviewService {
+
+    public static final int DEFAULT_WIDTH = 480;
+    private static final int WIDTH_STEP = 120; // widths are rounded to this to bound the variants per page
+    private static final int MAX_WIDTH = 1200;
+    private static final long MAX_PIXELS = 5_000_000L; // e.g. 1200 x 4166; refuses very long or huge pages
+
+    @Autowired private ContentStore contentStore;
+    @Autowired private LearningMaterialRepository materialRepository;
+    @Autowired private CatalogVersionService versions;
+    @Autowired private TransactionTemplate transactions;
+
+    @Value("${previews.dir:uploads/.previews}")
+    private String previewDir;
+
+    @Value("${previews.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${previews.workers:2}")
+    private int workers;
+
+    @Value("${previews.queue-size:100}")
+    private int queueSize;
+
+    private Path cacheDir;
+    private ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    // Disk cache index in access order, guarded by itself
+    private final LinkedHashMap<String, Long> cached = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes; // guarded by cached
+
+    @PostConstruct
+    public void start() throws IOException {
+        cacheDir = Paths.get(previewDir).toAbsolutePath().normalize();
+        Files.createDirectories(cacheDir);
+
+        // Rebuild the index oldest first, so the LRU order survives a restart approximately
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            List<Path> existing = files.filter(p -> p.toString().endsWith(".jpg"))
+                    .sorted(Comparator.comparingLong(PdfPreviewService::lastModified))
+                    .toList();
+            synchronized (cached) {
+                for (Path p : existing) {
+                    long size = Files.size(p);
+                    cached.put(p.getFileName().toString(), size);
+                    cachedBytes += size;
+                }
+            }
+        }
+        evictIfNeeded();
+
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "pdf-preview-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public static int normalizeWidth(Integer width) {
+        if (width == null) return DEFAULT_WIDTH;
+        int clamped = Math.max(WIDTH_STEP, Math.min(width, MAX_WIDTH));
+        return Math.round((float) clamped / WIDTH_STEP) * WIDTH_STEP;
+    }
+
+    /**
+     * The cached preview of one page (1-based), rendering it if needed. Throws
+     * RejectedExecutionException when the render queue is full.
+     */
+    public CompletableFuture<Path> getPreview(LearningMaterial material, int page, int width) {
+        String reference = material.getFilePath();
+        String key = cacheKey(reference, page, width);
+        Path file = cacheDir.resolve(key);
+        if (touch(key) && Files.exists(file)) return CompletableFuture.completedFuture(file);
+
+        // Every concurrent caller for this key gets the same future
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = rendering.putIfAbsent(key, created);
+        if (existing != null) return existing;
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(render(reference, page, width, file));
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    rendering.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rendering.remove(key, created);
+            throw e;
+        }
+        return created;
+    }
+
+    /** Counts the pages of a newly uploaded PDF and renders its first-page thumbnail in the background. */
+    public void precompute(LearningMaterial material) {
+        if (material.getId() == null || !"pdf".equals(material.getType())) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    if (contentStore.stat(material.getFilePath()) == null) return;
+                    int pages;
+                    try (PDDocument document = load(material.getFilePath())) {
+                        pages = document.getNumberOfPages();
+                    }
+                    transactions.executeWithoutResult(tx -> {
+                        materialRepository.updatePageCount(material.getId(), pages);
+                        versions.subjectContentChanged(material.getSubjectCode()); // pageCount is part of the listed material
+                    });
+                    getPreview(material, 1, DEFAULT_WIDTH);
+                } catch (Exception e) {
+                    System.err.println("Could not precompute preview for material " + material.getId() + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Busy; the first preview request renders it instead
+        }
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private Path render(String reference, int page, int width, Path target) {
+        try {
+            if (contentStore.stat(reference) == null) throw new IllegalArgumentException("File not found: " + reference);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try (PDDocument document = load(reference)) {
+            if (page < 1 || page > document.getNumberOfPages()) {
+                throw new IllegalArgumentException("Page " + page + " is out of range (1-" + document.getNumberOfPages() + ")");
+            }
+            // Pick the DPI that makes the page come out at the requested width
+            PDRectangle box = document.getPage(page - 1).getCropBox();
+            float dpi = Math.max(10f, 72f * width / Math.max(1f, box.getWidth()));
+            long pixels = (long) Math.ceil(box.getWidth() * dpi / 72f) * (long) Math.ceil(box.getHeight() * dpi / 72f);
+            if (pixels > MAX_PIXELS) {
+                throw new IllegalArgumentException("Page " + page + " is too large to preview at width " + width);
+            }
+            BufferedImage image = new PDFRenderer(document).renderImageWithDPI(page - 1, dpi, ImageType.RGB);
+
+            Path temp = target.resolveSibling(".tmp-" + target.getFileName());
+            ImageIO.write(image, "jpg", temp.toFile());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            remember(target.getFileName().toString(), Files.size(target));
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Local files are opened in place; remote blobs are read into memory, as PDFBox needs random access
+    private PDDocument load(String reference) throws IOException {
+        Path local = contentStore.localFile(reference);
+        if (local != null) return Loader.loadPDF(local.toFile());
+        try (InputStream in = contentStore.open(reference)) {
+            return Loader.loadPDF(new RandomAccessReadBuffer(in));
+        }
+    }
+
+    private static String cacheKey(String reference, int page, int width) {
+        String safe = reference.replaceAll("[^A-Za-z0-9._-]", "_");
+        return safe + "_p" + page + "_w" + width + ".jpg";
+    }
+
+    // Marks a cache entry as recently used; false if it is not in the cache
+    private boolean touch(String key) {
+        synchronized (cached) {
+            return cached.get(key) != null;
+        }
+    }
+
+    private void remember(String key, long size) {
+        synchronized (cached) {
+            Long previous = cached.put(key, size);
+            cachedBytes += size - (previous == null ? 0 : previous);
+        }
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        synchronized (cached) {
+            Iterator<Map.Entry<String, Long>> it = cached.entrySet().iterator();
+            while (cachedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                try {
+                    Files.deleteIfExists(cacheDir.resolve(eldest.getKey()));
+                } catch (IOException e) {
+                    System.err.println("Could not evict preview " + eldest.getKey() + ": " + e.getMessage());
+                }
+                cachedBytes -= eldest.getValue();
+                it.remove();
+            }
+        }
+    }
+
+    private static long lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
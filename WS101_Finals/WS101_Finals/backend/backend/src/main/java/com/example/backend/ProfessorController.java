@@ -1,29 +1,37 @@
 package com.example.backend;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.*;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/professor")
 @CrossOrigin(origins = "*")
 public class ProfessorController {
 
-    private static final String UPLOAD_DIR = "uploads/";
-
     @Autowired private SubjectRepository subjectRepository;
     @Autowired private LearningMaterialRepository materialRepository;
     @Autowired private QuizRepository quizRepository;
     @Autowired private CourseRepository courseRepository;
     @Autowired private ModuleRepository moduleRepository;
-    @Autowired private UserRepository userRepository;
-    @Autowired private ActivityLogRepository logRepository;
+    @Autowired private ActivityLogWriter activityLogWriter;
+    @Autowired private ContentStore contentStore;
+    @Autowired private ChunkedUploadService chunkedUploads;
+    @Autowired private PdfPreviewService pdfPreviews;
+    @Autowired private SearchIndexService searchIndex;
+    @Autowired private StorageAccountingService storageAccounting;
+    @Autowired private CatalogService catalog;
+    @Autowired private DashboardCounterService counters;
+    @Autowired private TransactionTemplate transactions;
+    @Autowired private CatalogVersionService versions;
 
     // ==========================================
     // 1. DASHBOARD STATS
@@ -33,17 +41,7 @@ public class ProfessorController {
         Map<String, Long> stats = new HashMap<>();
 
         if (courseId != null && !courseId.isEmpty() && !courseId.equals("null")) {
-            stats.put("students", userRepository.countByRoleAndCourseId("student", courseId));
-            List<String> subjects = subjectRepository.findByCourseId(courseId)
-                    .stream().map(Subject::getCode).collect(Collectors.toList());
-
-            if (!subjects.isEmpty()) {
-                stats.put("subjects", (long) subjects.size());
-                stats.put("lessons", materialRepository.countBySubjectCodeIn(subjects));
-            } else {
-                stats.put("subjects", 0L);
-                stats.put("lessons", 0L);
-            }
+            stats.putAll(counters.getCourseCounts(courseId)); // students, subjects, lessons: one row read each
         } else {
             stats.put("students", 0L);
             stats.put("subjects", 0L);
@@ -56,24 +54,22 @@ public class ProfessorController {
     // 2. SUBJECTS
     // ==========================================
     @GetMapping("/subjects")
-    public List<Subject> getSubjects(@RequestParam(required = false) String courseId) {
+    public ResponseEntity<List<Subject>> getSubjects(@RequestParam(required = false) String courseId, WebRequest request) {
         if (courseId != null && !courseId.isEmpty()) {
-            return subjectRepository.findByCourseId(courseId);
+            return versions.respond(request, versions.course(courseId), () -> catalog.getSubjectsByCourse(courseId));
         }
-        return new ArrayList<>();
+        return ResponseEntity.ok(new ArrayList<>());
     }
 
     // ==========================================
     // 3. QUIZ MANAGEMENT
     // ==========================================
     @GetMapping("/quizzes")
-    public List<Quiz> getQuizzes(@RequestParam(required = false) String subjectCode) {
+    public ResponseEntity<List<Quiz>> getQuizzes(@RequestParam(required = false) String subjectCode, WebRequest request) {
         if (subjectCode != null && !subjectCode.isEmpty()) {
-            return quizRepository.findAll().stream()
-                    .filter(q -> q.getSubjectCode().equals(subjectCode))
-                    .collect(Collectors.toList());
+            return versions.respond(request, versions.subject(subjectCode), () -> quizRepository.findBySubjectCode(subjectCode));
         }
-        return quizRepository.findAll();
+        return ResponseEntity.ok(quizRepository.findAll());
     }
 
     @PostMapping("/quizzes")
@@ -92,7 +88,6 @@ public class ProfessorController {
             quiz.setTitle(title);
             quiz.setSubjectCode(subjectCode);
             quiz.setDateCreated(LocalDate.now());
-            quizRepository.save(quiz);
 
             // 2. Save as Learning Material
             LearningMaterial mat = new LearningMaterial();
@@ -102,9 +97,16 @@ public class ProfessorController {
             mat.setFilePath(link);
             if (moduleId != null) mat.setModuleId(moduleId);
 
-            materialRepository.save(mat);
+            LearningMaterial savedMat = transactions.execute(tx -> {
+                quizRepository.save(quiz);
+                LearningMaterial saved = materialRepository.save(mat);
+                counters.lessonAdded(subjectCode);
+                versions.subjectContentChanged(subjectCode);
+                return saved;
+            });
+            searchIndex.indexMaterial(savedMat);
 
-            logRepository.save(new ActivityLog("Professor", "Created Quiz: " + title, "professor"));
+            activityLogWriter.log("Professor", "Created Quiz: " + title, "professor");
 
             return ResponseEntity.ok("Quiz Created");
         } catch (Exception e) {
@@ -118,9 +120,12 @@ public class ProfessorController {
         if (!quizRepository.existsById(id)) return ResponseEntity.notFound().build();
 
         Quiz q = quizRepository.findById(id).get();
-        quizRepository.deleteById(id);
+        transactions.executeWithoutResult(tx -> {
+            quizRepository.deleteById(id);
+            versions.subjectContentChanged(q.getSubjectCode());
+        });
 
-        logRepository.save(new ActivityLog("Professor", "Deleted Quiz: " + q.getTitle(), "professor"));
+        activityLogWriter.log("Professor", "Deleted Quiz: " + q.getTitle(), "professor");
         return ResponseEntity.ok("Quiz deleted successfully");
     }
 
@@ -130,13 +135,12 @@ public class ProfessorController {
 
     // ✅ NEW: GET LESSONS (For View Lesson Page)
     @GetMapping("/materials")
-    public List<LearningMaterial> getAllMaterials(@RequestParam(required = false) String subjectCode) {
+    public ResponseEntity<List<LearningMaterial>> getAllMaterials(@RequestParam(required = false) String subjectCode,
+                                                                  WebRequest request) {
         if (subjectCode != null && !subjectCode.isEmpty()) {
-            return materialRepository.findAll().stream()
-                    .filter(m -> m.getSubjectCode().equals(subjectCode))
-                    .collect(Collectors.toList());
+            return versions.respond(request, versions.subject(subjectCode), () -> materialRepository.findBySubjectCode(subjectCode));
         }
-        return materialRepository.findAll();
+        return ResponseEntity.ok(materialRepository.findAll());
     }
 
     // ✅ NEW: DELETE LESSON
@@ -145,9 +149,16 @@ public class ProfessorController {
         if (!materialRepository.existsById(id)) return ResponseEntity.notFound().build();
 
         LearningMaterial m = materialRepository.findById(id).get();
-        materialRepository.deleteById(id);
-
-        logRepository.save(new ActivityLog("Professor", "Deleted Lesson: " + m.getTitle(), "professor"));
+        transactions.executeWithoutResult(tx -> {
+            materialRepository.deleteById(id);
+            // The file itself goes with the next reconcile
+            if (m.getFileSize() != null) storageAccounting.add(m.getSubjectCode(), -m.getFileSize());
+            counters.lessonRemoved(m.getSubjectCode());
+            versions.subjectContentChanged(m.getSubjectCode());
+        });
+        searchIndex.removeMaterial(id);
+
+        activityLogWriter.log("Professor", "Deleted Lesson: " + m.getTitle(), "professor");
         return ResponseEntity.ok("Lesson deleted successfully");
     }
 
@@ -156,8 +167,13 @@ public class ProfessorController {
         if (module.getSubjectCode() == null || module.getSubjectCode().isEmpty()) {
             return ResponseEntity.badRequest().body("Subject Code is required");
         }
-        Module saved = moduleRepository.save(module);
-        logRepository.save(new ActivityLog("Professor", "Created Module " + module.getModuleNumber(), "professor"));
+        Module saved = transactions.execute(tx -> {
+            Module persisted = catalog.saveModule(module);
+            versions.subjectContentChanged(module.getSubjectCode());
+            return persisted;
+        });
+        searchIndex.indexModule(saved);
+        activityLogWriter.log("Professor", "Created Module " + module.getModuleNumber(), "professor");
         return ResponseEntity.ok(saved);
     }
 
@@ -168,29 +184,100 @@ public class ProfessorController {
             @RequestParam("subjectCode") String subjectCode,
             @RequestParam(value = "moduleId", required = false) Long moduleId
     ) {
+        storageAccounting.checkQuota(subjectCode, file.getSize());
         try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) Files.createDirectories(uploadPath);
-
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Files.copy(file.getInputStream(), uploadPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
-
-            LearningMaterial material = new LearningMaterial();
-            material.setTitle(title);
-            material.setSubjectCode(subjectCode);
-            material.setFilePath(fileName);
-            material.setType(determineType(fileName));
-            if (moduleId != null) material.setModuleId(moduleId);
-
-            materialRepository.save(material);
-            logRepository.save(new ActivityLog("Professor", "Uploaded Lesson: " + title, "professor"));
-
+            // Identical files (e.g. the same PDF for several subjects) share one stored blob
+            String fileName = contentStore.store(file);
+            saveLesson(title, subjectCode, moduleId, fileName, file.getSize());
             return ResponseEntity.ok("File uploaded successfully");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error: " + e.getMessage());
         }
     }
 
+    private LearningMaterial saveLesson(String title, String subjectCode, Long moduleId, String fileName, long size) {
+        LearningMaterial material = new LearningMaterial();
+        material.setTitle(title);
+        material.setSubjectCode(subjectCode);
+        material.setFilePath(fileName);
+        material.setType(determineType(fileName));
+        material.setFileSize(size);
+        if (moduleId != null) material.setModuleId(moduleId);
+
+        LearningMaterial saved = transactions.execute(tx -> {
+            LearningMaterial persisted = materialRepository.save(material);
+            storageAccounting.add(subjectCode, size);
+            counters.lessonAdded(subjectCode);
+            versions.subjectContentChanged(subjectCode);
+            return persisted;
+        });
+        activityLogWriter.log("Professor", "Uploaded Lesson: " + title, "professor");
+        pdfPreviews.precompute(saved);
+        searchIndex.indexMaterial(saved);
+        return saved;
+    }
+
+    // ==========================================
+    // 5. RESUMABLE (CHUNKED) UPLOADS
+    // ==========================================
+    // 1) POST /uploads {fileName, size, title, subjectCode, moduleId?, chunkSize?}
+    // 2) PUT /uploads/{id}/chunks/{index} with the raw chunk bytes (any order, in parallel)
+    // 3) GET /uploads/{id} to see which chunks arrived, e.g. after a dropped connection
+    // 4) POST /uploads/{id}/complete creates the lesson exactly like /upload
+
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initiateUpload(@RequestBody Map<String, Object> request) throws IOException {
+        String title = (String) request.get("title");
+        String subjectCode = (String) request.get("subjectCode");
+        if (title == null || subjectCode == null) {
+            return ResponseEntity.badRequest().body("title and subjectCode are required");
+        }
+        Object size = request.get("size");
+        Object chunkSize = request.get("chunkSize");
+        Object moduleId = request.get("moduleId");
+        long declaredSize = size instanceof Number s ? s.longValue() : 0;
+        storageAccounting.checkQuota(subjectCode, declaredSize);
+
+        ChunkedUploadService.Manifest manifest = chunkedUploads.initiate(
+                (String) request.get("fileName"),
+                declaredSize,
+                chunkSize instanceof Number c ? c.intValue() : null,
+                title, subjectCode,
+                moduleId instanceof Number m ? m.longValue() : null);
+        return ResponseEntity.ok(manifest);
+    }
+
+    @PutMapping("/uploads/{uploadId}/chunks/{index}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId, @PathVariable int index,
+                                         HttpServletRequest request) throws IOException {
+        chunkedUploads.writeChunk(uploadId, index, request.getInputStream());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public Map<String, Object> getUploadStatus(@PathVariable String uploadId) {
+        return chunkedUploads.status(uploadId);
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) throws IOException {
+        // Checked again: other lessons may have used up the quota while the chunks were arriving.
+        // A rejected upload is kept, so it can still be completed once space is freed.
+        ChunkedUploadService.Manifest pending = chunkedUploads.manifest(uploadId);
+        storageAccounting.checkQuota(pending.subjectCode(), pending.size());
+        ChunkedUploadService.Completed completed = chunkedUploads.complete(uploadId);
+        ChunkedUploadService.Manifest manifest = completed.manifest();
+        LearningMaterial saved = saveLesson(manifest.title(), manifest.subjectCode(), manifest.moduleId(),
+                completed.reference(), manifest.size());
+        return ResponseEntity.ok(saved);
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId) throws IOException {
+        chunkedUploads.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
     private String determineType(String fileName) {
         String name = fileName.toLowerCase();
         if (name.endsWith(".pdf")) return "pdf";
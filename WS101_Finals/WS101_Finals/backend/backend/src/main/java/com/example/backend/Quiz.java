@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "quizzes")
+@Table(name = "quizzes", indexes = {
+        @Index(name = "idx_quizzes_subject_code", columnList = "subject_code")
+})
 public class Quiz {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
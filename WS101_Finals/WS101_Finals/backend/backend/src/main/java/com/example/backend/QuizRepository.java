@@ -3,6 +3,11 @@ package com.example.backend;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
+
+    List<Quiz> findBySubjectCode(String subjectCode);
+    List<Quiz> findBySubjectCodeIn(List<String> subjectCodes);
 }
\ No newline at end of file
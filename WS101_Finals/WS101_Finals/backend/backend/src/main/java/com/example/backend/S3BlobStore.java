@@ -0,0 +1,195 @@
+package com.example.backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Blobs in an S3-compatible bucket (AWS S3, MinIO, Ceph, LocalStack...), so
+ * every app node sees the same files. Point uploads.s3.endpoint at a local MinIO
+ * with uploads.s3.path-style=true to run against a stand-in.
+ *
+ * Objects are written with a long immutable Cache-Control, since a key never
+ * changes content, and MediaController redirects downloads to presigned URLs.
+ */
+@Component
+@ConditionalOnProperty(name = "uploads.store", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Value("${uploads.s3.bucket}")
+    private String bucket;
+
+    @Value("${uploads.s3.prefix:}")
+    private String prefix;
+
+    @Value("${uploads.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${uploads.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${uploads.s3.path-style:false}")
+    private boolean pathStyle;
+
+    @Value("${uploads.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${uploads.s3.secret-key:}")
+    private String secretKey;
+
+    private S3Client client;
+    private S3Presigner presigner;
+
+    @PostConstruct
+    public void init() {
+        // Without explicit keys, the usual AWS chain applies (env vars, profile, instance role)
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3Configuration s3Config = S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build();
+
+        var clientBuilder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Config);
+        var presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Config);
+        if (!endpoint.isBlank()) {
+            clientBuilder.endpointOverride(URI.create(endpoint));
+            presignerBuilder.endpointOverride(URI.create(endpoint));
+        }
+        client = clientBuilder.build();
+        presigner = presignerBuilder.build();
+    }
+
+    @PreDestroy
+    public void close() {
+        presigner.close();
+        client.close();
+    }
+
+    @Override
+    public BlobInfo stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = client.headObject(b -> b.bucket(bucket).key(objectKey(key)));
+            return new BlobInfo(head.contentLength(), head.lastModified().toEpochMilli());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return null;
+            throw new IOException("S3 HEAD " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        try {
+            // Streamed from the file; the SDK can re-read it if a retry is needed
+            client.putObject(b -> b.bucket(bucket).key(objectKey(key))
+                            .contentType(contentTypeOf(key))
+                            .cacheControl(CACHE_CONTROL),
+                    RequestBody.fromFile(source));
+        } catch (S3Exception e) {
+            throw new IOException("S3 PUT " + key + " failed: " + e.getMessage(), e);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    // S3 can't set Last-Modified directly; copying the object onto itself (server side) resets it.
+    // A copy in place must change something, so the metadata is restated with REPLACE.
+    @Override
+    public boolean touch(String key) throws IOException {
+        try {
+            client.copyObject(b -> b.sourceBucket(bucket).sourceKey(objectKey(key))
+                    .destinationBucket(bucket).destinationKey(objectKey(key))
+                    .metadataDirective(MetadataDirective.REPLACE)
+                    .contentType(contentTypeOf(key))
+                    .cacheControl(CACHE_CONTROL));
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return false;
+            throw new IOException("S3 COPY " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long start, long end) throws IOException {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(objectKey(key));
+        if (start > 0 || end >= 0) request.range("bytes=" + start + "-" + (end >= 0 ? end : ""));
+        try {
+            return client.getObject(request.build()); // streams from the connection; close it to release it
+        } catch (S3Exception e) {
+            throw new IOException("S3 GET " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void forEach(BlobVisitor visitor) throws IOException {
+        try {
+            // The paginator fetches the next page of 1000 keys only as iteration reaches it
+            for (S3Object object : client.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(prefix)).contents()) {
+                visitor.visit(object.key().substring(prefix.length()),
+                        new BlobInfo(object.size(), object.lastModified().toEpochMilli()));
+            }
+        } catch (S3Exception e) {
+            throw new IOException("S3 LIST failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        if (stat(key) == null) return false;
+        try {
+            client.deleteObject(b -> b.bucket(bucket).key(objectKey(key)));
+            return true;
+        } catch (S3Exception e) {
+            throw new IOException("S3 DELETE " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public URI presign(String key, Duration ttl) {
+        try {
+            return presigner.presignGetObject(p -> p.signatureDuration(ttl)
+                    .getObjectRequest(b -> b.bucket(bucket).key(objectKey(key)))).url().toURI();
+        } catch (URISyntaxException e) {
+            return null; // serve through the app instead
+        }
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+
+    private static String contentTypeOf(String key) {
+        String contentType = URLConnection.guessContentTypeFromName(key);
+        return contentType != null ? contentType : "application/octet-stream";
+    }
+}
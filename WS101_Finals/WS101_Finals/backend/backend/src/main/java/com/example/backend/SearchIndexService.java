@@ -0,0 +1,325 @@
+package com.example.backend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.extractor.ExtractorFactory;
+import org.apache.poi.extractor.POITextExtractor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded Lucene index over learning material text (PDF, DOC/DOCX, PPT/PPTX)
+ * and the titles of materials, courses, subjects and modules.
+ *
+ * Text extraction and indexing run on one background thread as materials are
+ * saved or deleted; searches use a near-real-time searcher that is refreshed
+ * after each change, so they never touch the database or the files. Results are
+ * BM25-ranked, optionally scoped to one subject, with a highlighted snippet.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final int MAX_TEXT_CHARS = 2_000_000; // keeps one huge file from dominating memory and the index
+
+    // Bump when fields change in a way an existing index can't take; the index is then rebuilt on startup
+    private static final String SCHEMA_VERSION = "2"; // 2: content with offsets
+    private static final String SCHEMA_KEY = "schema";
+
+    // Offsets in the postings let the highlighter find passages without re-analyzing the stored text
+    private static final FieldType CONTENT = new FieldType(TextField.TYPE_STORED);
+    static {
+        CONTENT.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT.freeze();
+    }
+
+    @Autowired private ContentStore contentStore;
+    @Autowired private LearningMaterialRepository materialRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private SubjectRepository subjectRepository;
+    @Autowired private ModuleRepository moduleRepository;
+
+    @Value("${search.index-dir:data/search-index}")
+    private String indexDir;
+
+    @Value("${search.queue-size:1000}")
+    private int queueSize;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ThreadPoolExecutor indexer;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(indexDir);
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+        boolean current = DirectoryReader.indexExists(directory)
+                && SCHEMA_VERSION.equals(SegmentInfos.readLatestCommit(directory).getUserData().get(SCHEMA_KEY));
+        if (!current) System.out.println("Search index: building from scratch (schema " + SCHEMA_VERSION + ")");
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(current ? IndexWriterConfig.OpenMode.CREATE_OR_APPEND : IndexWriterConfig.OpenMode.CREATE));
+        writer.setLiveCommitData(Map.of(SCHEMA_KEY, SCHEMA_VERSION).entrySet());
+        searcherManager = new SearcherManager(writer, null);
+        indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "search-indexer");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        indexer.shutdown();
+        try {
+            indexer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searcherManager.close();
+        writer.close(); // commits
+        directory.close();
+    }
+
+    // Titles are cheap to (re)index; material text only for materials the index has not seen
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        submit(() -> {
+            for (Course c : courseRepository.findAll()) writeCourse(c);
+            for (Subject s : subjectRepository.findAll()) writeSubject(s);
+            for (Module m : moduleRepository.findAll()) writeModule(m);
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                for (LearningMaterial m : materialRepository.findAll()) {
+                    if (searcher.count(new TermQuery(new Term("key", key("material", m.getId())))) == 0) writeMaterial(m);
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        });
+    }
+
+    // ==========================================
+    // INDEXING (background, in submission order)
+    // ==========================================
+
+    public void indexMaterial(LearningMaterial material) { submit(() -> writeMaterial(material)); }
+    public void removeMaterial(Long id) { submit(() -> delete(key("material", id))); }
+    public void indexCourse(Course course) { submit(() -> writeCourse(course)); }
+    public void removeCourse(String id) { submit(() -> delete(key("course", id))); }
+    public void indexSubject(Subject subject) { submit(() -> writeSubject(subject)); }
+    public void removeSubject(String code) { submit(() -> delete(key("subject", code))); }
+    public void indexModule(Module module) { submit(() -> writeModule(module)); }
+
+    private void writeMaterial(LearningMaterial m) throws IOException {
+        Document doc = baseDocument("material", m.getId(), m.getTitle(), m.getSubjectCode());
+        String text = extractText(m);
+        if (text != null) doc.add(new Field("content", text, CONTENT));
+        doc.add(new StringField("type", String.valueOf(m.getType()), Field.Store.YES));
+        if (m.getModuleId() != null) doc.add(new StringField("moduleId", m.getModuleId().toString(), Field.Store.YES));
+        writer.updateDocument(new Term("key", key("material", m.getId())), doc);
+    }
+
+    private void writeCourse(Course c) throws IOException {
+        Document doc = baseDocument("course", c.getId(), c.getTitle(), null);
+        if (c.getDescription() != null) doc.add(new Field("content", c.getDescription(), CONTENT));
+        writer.updateDocument(new Term("key", key("course", c.getId())), doc);
+    }
+
+    private void writeSubject(Subject s) throws IOException {
+        Document doc = baseDocument("subject", s.getCode(), s.getTitle(), s.getCode());
+        writer.updateDocument(new Term("key", key("subject", s.getCode())), doc);
+    }
+
+    private void writeModule(Module m) throws IOException {
+        Document doc = baseDocument("module", m.getId(), m.getTitle(), m.getSubjectCode());
+        if (m.getDescription() != null) doc.add(new Field("content", m.getDescription(), CONTENT));
+        writer.updateDocument(new Term("key", key("module", m.getId())), doc);
+    }
+
+    private Document baseDocument(String kind, Object id, String title, String subjectCode) {
+        Document doc = new Document();
+        doc.add(new StringField("key", key(kind, id), Field.Store.NO));
+        doc.add(new StringField("kind", kind, Field.Store.YES));
+        doc.add(new StringField("id", String.valueOf(id), Field.Store.YES));
+        doc.add(new TextField("title", title == null ? "" : title, Field.Store.YES));
+        if (subjectCode != null) doc.add(new StringField("subjectCode", subjectCode, Field.Store.YES));
+        return doc;
+    }
+
+    private void delete(String key) throws IOException {
+        writer.deleteDocuments(new Term("key", key));
+    }
+
+    private static String key(String kind, Object id) {
+        return kind + ":" + id;
+    }
+
+    private void submit(IndexTask task) {
+        try {
+            indexer.execute(() -> {
+                try {
+                    task.run();
+                    searcherManager.maybeRefresh(); // visible to searches right away, durable at the next commit
+                } catch (Exception e) {
+                    System.err.println("Search indexing failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Search index queue is full; change will be picked up at next startup");
+        }
+    }
+
+    @Scheduled(fixedDelay = 30000)
+    public void commit() {
+        if (!writer.hasUncommittedChanges()) return;
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            System.err.println("Search index commit failed: " + e.getMessage());
+        }
+    }
+
+    // ==========================================
+    // TEXT EXTRACTION
+    // ==========================================
+
+    private String extractText(LearningMaterial m) {
+        if (m.getFilePath() == null) return null;
+        String reference = m.getFilePath();
+        String name = reference.toLowerCase(Locale.ROOT);
+
+        try {
+            if (contentStore.stat(reference) == null) return null; // e.g. quiz links
+            String text;
+            if (name.endsWith(".pdf")) {
+                Path local = contentStore.localFile(reference);
+                try (PDDocument document = local != null ? Loader.loadPDF(local.toFile()) : loadRemotePdf(reference)) {
+                    text = new PDFTextStripper().getText(document);
+                }
+            } else if (name.endsWith(".doc") || name.endsWith(".docx") || name.endsWith(".ppt") || name.endsWith(".pptx")) {
+                try (InputStream in = contentStore.open(reference);
+                     POITextExtractor extractor = ExtractorFactory.createExtractor(in)) {
+                    text = extractor.getText();
+                }
+            } else {
+                return null;
+            }
+            return text.length() > MAX_TEXT_CHARS ? text.substring(0, MAX_TEXT_CHARS) : text;
+        } catch (Exception e) {
+            System.err.println("Could not extract text from " + m.getFilePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private PDDocument loadRemotePdf(String reference) throws IOException {
+        try (InputStream in = contentStore.open(reference)) {
+            return Loader.loadPDF(new RandomAccessReadBuffer(in));
+        }
+    }
+
+    // ==========================================
+    // SEARCH
+    // ==========================================
+
+    /**
+     * Ranked matches for a free-text query (quotes, +, - and * work; bad syntax is
+     * never an error). Scoped to one subject when subjectCode is given.
+     */
+    public List<Map<String, Object>> search(String text, String subjectCode, int limit) throws IOException {
+        if (text == null || text.isBlank()) return List.of();
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of("title", 3.0f, "content", 1.0f));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query parsed = parser.parse(text);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(parsed, BooleanClause.Occur.MUST);
+        if (subjectCode != null && !subjectCode.isBlank()) {
+            builder.add(new TermQuery(new Term("subjectCode", subjectCode)), BooleanClause.Occur.FILTER);
+        }
+        Query query = builder.build();
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs top = searcher.search(query, limit);
+            // Escapes the snippet text, so only the <b> tags reach the page as markup
+            UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter("<b>", "</b>", "... ", true))
+                    .build();
+            String[] snippets = highlighter.highlight("content", query, top, 1);
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int i = 0; i < top.scoreDocs.length; i++) {
+                ScoreDoc hit = top.scoreDocs[i];
+                Document doc = searcher.storedFields().document(hit.doc);
+                Map<String, Object> result = new HashMap<>();
+                result.put("kind", doc.get("kind"));
+                result.put("id", doc.get("id"));
+                result.put("title", doc.get("title"));
+                result.put("subjectCode", doc.get("subjectCode"));
+                result.put("type", doc.get("type"));
+                result.put("moduleId", doc.get("moduleId"));
+                result.put("score", hit.score);
+                result.put("snippet", snippets[i]); // matches wrapped in <b>...</b>, or null for title-only hits
+                results.add(result);
+            }
+            return results;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexTask {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,494 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Activity log storage in append-only local segment files instead of the
+ * activity_logs table. Enabled with {@code activity-log.store=segmented}.
+ *
+ * Every record is a fixed 256 bytes (id, epoch millis, then username, role and
+ * action as length-prefixed UTF-8, truncated to fit), so record n of a segment
+ * sits at n * 256. Ids and timestamps only ever grow (a timestamp older than the
+ * previous one is clamped up to it), which makes "newest first" a backwards scan.
+ *
+ * A new segment starts every {@code activity-log.segment.roll-hours} or after
+ * {@code activity-log.segment.max-records}. Reads map segments read-only and use
+ * a sparse in-memory index (the timestamp of every 1024th record) to jump to the
+ * end of a time range. Segments older than {@code activity-log.segment.retention-days}
+ * are moved out by a nightly job, either into activity_logs ("database", the
+ * default) or into gzip files under {dir}/archive ("gzip", offline only), and
+ * then deleted.
+ *
+ * Ids continue after the highest id in activity_logs and exported rows keep
+ * them, so the table and the segments share one id space. A page that runs out
+ * of segments continues in activity_logs, which holds the archived rows and
+ * any written before the switch to this store.
+ */
+@Component
+@ConditionalOnProperty(name = "activity-log.store", havingValue = "segmented")
+public class SegmentedActivityLogStore implements ActivityLogStore {
+
+    static final int RECORD_SIZE = 256;
+    private static final int USERNAME_BYTES = 63;
+    private static final int ROLE_BYTES = 31;
+    private static final int ACTION_BYTES = 143; // 8 + 8 + (1 + 63) + (1 + 31) + (1 + 143) = 256
+    private static final int INDEX_INTERVAL = 1024;
+    private static final int EXPORT_BATCH = 1000;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Ignores rows already exported by an earlier, interrupted run
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO activity_logs (id, username, action, role, timestamp) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Value("${activity-log.segment.dir:data/activity-log}")
+    private String dir;
+
+    @Value("${activity-log.segment.roll-hours:24}")
+    private long rollHours;
+
+    @Value("${activity-log.segment.max-records:1000000}")
+    private int maxRecords;
+
+    @Value("${activity-log.segment.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${activity-log.segment.archive:database}")
+    private String archive;
+
+    private JdbcTemplate streamingJdbc;
+    private Path directory;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>(); // oldest first
+
+    // Writer state, guarded by this
+    private volatile Segment active;
+    private FileChannel activeChannel;
+    private long nextId = 1;
+    private long lastMillis = Long.MIN_VALUE;
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if ((long) maxRecords * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalStateException("activity-log.segment.max-records is too large for one mapped segment");
+        }
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            long size = Files.size(file);
+            if (size % RECORD_SIZE != 0) {
+                // A torn tail record from a crash mid-write
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(size - size % RECORD_SIZE);
+                }
+            }
+            Segment segment = Segment.load(file);
+            if (segment.count == 0) {
+                Files.delete(file);
+                continue;
+            }
+            segments.add(segment);
+        }
+
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            nextId = last.firstId + last.count;
+            lastMillis = last.lastMillis;
+            active = last;
+            activeChannel = FileChannel.open(last.path, StandardOpenOption.WRITE);
+        }
+
+        // Stay above the table's ids; the active segment's ids must stay contiguous, so start a new one
+        long tableNext = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM activity_logs", Long.class);
+        if (tableNext > nextId) {
+            nextId = tableNext;
+            if (activeChannel != null) activeChannel.close();
+            activeChannel = null;
+            active = null;
+        }
+        streamingJdbc = JdbcActivityLogStore.streaming(dataSource);
+        System.out.println("Activity log segments: " + segments.size() + " in " + directory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) activeChannel.close();
+    }
+
+    // ==========================================
+    // WRITES (single writer thread, or inline on overflow)
+    // ==========================================
+
+    @Override
+    public synchronized void append(List<ActivityLog> batch) {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+        long[] timestamps = new long[batch.size()];
+        int pending = 0;
+        try {
+            for (ActivityLog log : batch) {
+                long millis = Math.max(toMillis(log.getTimestampTime()), lastMillis);
+                if (needsRoll(pending, millis)) {
+                    commit(buffer, timestamps, pending);
+                    roll(millis);
+                    pending = 0;
+                }
+                encode(buffer, nextId + pending, millis, log);
+                timestamps[pending++] = millis;
+            }
+            commit(buffer, timestamps, pending);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean needsRoll(int pending, long millis) {
+        if (active == null) return true;
+        return active.count + pending >= maxRecords
+                || millis - active.startMillis >= rollHours * 3_600_000L;
+    }
+
+    private void roll(long startMillis) throws IOException {
+        if (activeChannel != null) activeChannel.close();
+        Path file = directory.resolve(String.format("%020d%s", nextId, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        Segment segment = new Segment(file, nextId, startMillis);
+        segments.add(segment);
+        active = segment;
+    }
+
+    // Writes the buffered records after the last committed one; readers only see them once count moves
+    private void commit(ByteBuffer buffer, long[] timestamps, int records) throws IOException {
+        if (records == 0) return;
+        Segment segment = active;
+        long offset = (long) segment.count * RECORD_SIZE;
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                offset += activeChannel.write(buffer, offset);
+            }
+            activeChannel.force(false);
+        } catch (IOException e) {
+            activeChannel.truncate((long) segment.count * RECORD_SIZE); // drop a partial batch
+            throw e;
+        }
+        buffer.clear();
+
+        for (int i = 0; i < records; i++) {
+            segment.indexRecord(segment.count + i, timestamps[i]);
+        }
+        segment.lastMillis = timestamps[records - 1];
+        segment.count += records;
+        nextId += records;
+        lastMillis = timestamps[records - 1];
+    }
+
+    // ==========================================
+    // READS
+    // ==========================================
+
+    @Override
+    public void writePage(ActivityLogFilter filter, Long afterId, int limit, OutputStream out) throws IOException {
+        long fromMillis = filter.from() == null ? Long.MIN_VALUE : toMillis(filter.from());
+        long toMillis = filter.to() == null ? Long.MAX_VALUE : toMillis(filter.to());
+        long beforeId = afterId == null ? Long.MAX_VALUE : afterId;
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            int written = 0;
+            boolean done = false; // the page is full, or everything older is before the time range
+            List<Segment> snapshot = List.copyOf(segments);
+
+            scan:
+            for (int s = snapshot.size() - 1; s >= 0; s--) {
+                Segment segment = snapshot.get(s);
+                int count = segment.count;
+                if (count == 0 || segment.firstId >= beforeId || segment.startMillis >= toMillis) continue;
+                if (segment.lastMillis < fromMillis) { // every older segment is older still
+                    done = true;
+                    break;
+                }
+
+                ByteBuffer data = segment.map(count);
+                int end = (int) Math.min(count, beforeId - segment.firstId);
+                if (toMillis != Long.MAX_VALUE) end = Math.min(end, segment.firstAtOrAfter(data, count, toMillis));
+
+                for (int r = end - 1; r >= 0; r--) {
+                    int base = r * RECORD_SIZE;
+                    long millis = data.getLong(base + 8);
+                    if (millis < fromMillis) {
+                        done = true;
+                        break scan;
+                    }
+
+                    String username = readString(data, base + 16, USERNAME_BYTES);
+                    String role = readString(data, base + 16 + 1 + USERNAME_BYTES, ROLE_BYTES);
+                    String action = readString(data, base + 16 + 1 + USERNAME_BYTES + 1 + ROLE_BYTES, ACTION_BYTES);
+                    if (!matches(filter, username, role, action)) continue;
+
+                    ActivityLogStore.writeEntry(json, data.getLong(base), username, action, role, toDateTime(millis));
+                    if (++written >= limit) {
+                        done = true;
+                        break scan;
+                    }
+                }
+            }
+
+            // Older rows are in activity_logs, below the oldest segment's ids. A cursor inside
+            // the segments continues from the newest of them, one below the segments from itself.
+            if (!done) {
+                Long oldestSegmentId = snapshot.isEmpty() ? null : snapshot.get(0).firstId;
+                Long tableAfterId = afterId != null && (oldestSegmentId == null || afterId < oldestSegmentId)
+                        ? afterId : null;
+                JdbcActivityLogStore.writeRows(streamingJdbc, filter, tableAfterId, oldestSegmentId,
+                        limit - written, json);
+            }
+            json.writeEndArray();
+        }
+    }
+
+    @Override
+    public void checkCursor(long afterId) {
+        // Any id the segments cover is a position in them; older ones must still be in activity_logs
+        List<Segment> snapshot = List.copyOf(segments);
+        if (!snapshot.isEmpty()) {
+            Segment newest = snapshot.get(snapshot.size() - 1);
+            if (afterId >= snapshot.get(0).firstId && afterId < newest.firstId + newest.count) return;
+        }
+        JdbcActivityLogStore.findTimestamp(jdbcTemplate, afterId);
+    }
+
+    // Same semantics as the JDBC store: exact match, ignoring case as MySQL's collation does
+    private static boolean matches(ActivityLogFilter filter, String username, String role, String action) {
+        if (filter.username() != null && !filter.username().equalsIgnoreCase(username)) return false;
+        if (!filter.actions().isEmpty() && filter.actions().stream().noneMatch(a -> a.equalsIgnoreCase(action))) return false;
+        return filter.role() == null || filter.role().equalsIgnoreCase(role);
+    }
+
+    // ==========================================
+    // ARCHIVING
+    // ==========================================
+
+    @Scheduled(cron = "${activity-log.segment.archive-cron:0 45 3 * * *}")
+    public void archiveOldSegments() {
+        long cutoff = toMillis(LocalDateTime.now().minusDays(retentionDays));
+        for (Segment segment : segments) {
+            if (segment == active || segment.lastMillis >= cutoff) break;
+            try {
+                if ("database".equalsIgnoreCase(archive)) {
+                    exportToDatabase(segment);
+                } else {
+                    compress(segment);
+                }
+                segments.remove(segment);
+                Files.delete(segment.path);
+                System.out.println("Archived activity log segment " + segment.path.getFileName() + " (" + archive + ")");
+            } catch (Exception e) {
+                // Left in place; the next run tries again
+                System.err.println("Failed to archive " + segment.path.getFileName() + ": " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // Rows keep their ids, so a crash between the inserts and the delete re-exports nothing twice
+    private void exportToDatabase(Segment segment) throws IOException {
+        int count = segment.count;
+        ByteBuffer data = segment.map(count);
+        List<Object[]> rows = new ArrayList<>(EXPORT_BATCH);
+        for (int r = 0; r < count; r++) {
+            int base = r * RECORD_SIZE;
+            rows.add(new Object[]{
+                    data.getLong(base),
+                    readString(data, base + 16, USERNAME_BYTES),
+                    readString(data, base + 16 + 1 + USERNAME_BYTES + 1 + ROLE_BYTES, ACTION_BYTES),
+                    readString(data, base + 16 + 1 + USERNAME_BYTES, ROLE_BYTES),
+                    Timestamp.valueOf(toDateTime(data.getLong(base + 8)))
+            });
+            if (rows.size() == EXPORT_BATCH || r == count - 1) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private void compress(Segment segment) throws IOException {
+        Path archiveDir = Files.createDirectories(directory.resolve("archive"));
+        Path target = archiveDir.resolve(segment.path.getFileName() + ".gz");
+        Path temp = archiveDir.resolve(segment.path.getFileName() + ".gz.tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            Files.copy(segment.path, out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ==========================================
+    // RECORD FORMAT
+    // ==========================================
+
+    private static void encode(ByteBuffer buffer, long id, long millis, ActivityLog log) {
+        buffer.putLong(id);
+        buffer.putLong(millis);
+        putString(buffer, log.getUsername(), USERNAME_BYTES);
+        putString(buffer, log.getRole(), ROLE_BYTES);
+        putString(buffer, log.getAction(), ACTION_BYTES);
+    }
+
+    // Length byte (0 = null, otherwise length + 1), then the bytes, zero-padded to the slot size
+    private static void putString(ByteBuffer buffer, String value, int maxBytes) {
+        int slotEnd = buffer.position() + 1 + maxBytes;
+        if (value == null) {
+            buffer.put((byte) 0);
+        } else {
+            byte[] bytes = truncateUtf8(value.getBytes(StandardCharsets.UTF_8), maxBytes);
+            buffer.put((byte) (bytes.length + 1));
+            buffer.put(bytes);
+        }
+        buffer.position(slotEnd);
+    }
+
+    private static String readString(ByteBuffer data, int offset, int maxBytes) {
+        int length = (data.get(offset) & 0xFF) - 1;
+        if (length < 0) return null;
+        byte[] bytes = new byte[Math.min(length, maxBytes)];
+        data.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Cuts on a character boundary so truncated values still decode cleanly
+    private static byte[] truncateUtf8(byte[] bytes, int maxBytes) {
+        if (bytes.length <= maxBytes) return bytes;
+        int end = maxBytes;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) end--;
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return (time != null ? time : LocalDateTime.now()).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static class Segment {
+        final Path path;
+        final long firstId;
+        final long startMillis;
+        volatile int count;
+        volatile long lastMillis;
+
+        // Timestamp of every INDEX_INTERVAL-th record, guarded by this
+        private long[] sparseIndex = new long[16];
+        private int indexSize;
+
+        // Read-only mapping of the first mappedCount records, guarded by this
+        private MappedByteBuffer mapped;
+        private int mappedCount;
+
+        Segment(Path path, long firstId, long startMillis) {
+            this.path = path;
+            this.firstId = firstId;
+            this.startMillis = startMillis;
+        }
+
+        static Segment load(Path file) throws IOException {
+            int count = (int) (Files.size(file) / RECORD_SIZE);
+            long firstId = Long.parseLong(file.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+            if (count == 0) return new Segment(file, firstId, 0);
+
+            Segment segment;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * RECORD_SIZE);
+                segment = new Segment(file, data.getLong(0), data.getLong(8));
+                for (int r = 0; r < count; r += INDEX_INTERVAL) {
+                    segment.indexRecord(r, data.getLong(r * RECORD_SIZE + 8));
+                }
+                segment.lastMillis = data.getLong((count - 1) * RECORD_SIZE + 8);
+                segment.mapped = data;
+                segment.mappedCount = count;
+            }
+            segment.count = count;
+            return segment;
+        }
+
+        synchronized void indexRecord(int record, long millis) {
+            if (record % INDEX_INTERVAL != 0) return;
+            if (indexSize == sparseIndex.length) sparseIndex = Arrays.copyOf(sparseIndex, indexSize * 2);
+            sparseIndex[indexSize++] = millis;
+        }
+
+        // Remaps when the segment has grown past the current mapping (the active segment)
+        synchronized ByteBuffer map(int count) throws IOException {
+            if (mapped == null || mappedCount < count) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * RECORD_SIZE);
+                }
+                mappedCount = count;
+            }
+            return mapped;
+        }
+
+        /** Index of the first of the first {@code count} records at or after {@code millis}, or count. */
+        int firstAtOrAfter(ByteBuffer data, int count, long millis) {
+            int block;
+            synchronized (this) {
+                int blocks = Math.min(indexSize, (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+                int lo = 0, hi = blocks - 1;
+                block = 0;
+                while (lo <= hi) { // last block whose first timestamp is before millis
+                    int mid = (lo + hi) >>> 1;
+                    if (sparseIndex[mid] < millis) {
+                        block = mid;
+                        lo = mid + 1;
+                    } else {
+                        hi = mid - 1;
+                    }
+                }
+            }
+            for (int r = block * INDEX_INTERVAL; r < count; r++) {
+                if (data.getLong(r * RECORD_SIZE + 8) >= millis) return r;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-subject and per-course byte counters for lesson files, and the quotas
+ * checked before an upload is accepted.
+ *
+ * Counters move with single-row upserts as lessons are saved and deleted, so
+ * reading usage never sums learning_materials. Quotas are soft: two uploads
+ * admitted at the same moment can both pass, overshooting by at most one file.
+ */
+@Service
+public class StorageAccountingService {
+
+    // Never below zero, whether the row is new or not (the delta is bound twice)
+    private static final String ADD_SQL =
+            "INSERT INTO storage_usage (id, scope, scope_id, bytes) VALUES (?, ?, ?, GREATEST(0, ?)) " +
+            "ON DUPLICATE KEY UPDATE bytes = GREATEST(0, bytes + ?)";
+    private static final String SET_SQL =
+            "INSERT INTO storage_usage (id, scope, scope_id, bytes) VALUES (?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE bytes = new.bytes";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private StorageUsageRepository usageRepository;
+    @Autowired private CatalogService catalog;
+
+    @Value("${storage.quota.subject-bytes:0}")
+    private long defaultSubjectQuota;
+
+    @Value("${storage.quota.course-bytes:0}")
+    private long defaultCourseQuota;
+
+    /** Rejects an upload of the given size that would take the subject or its course past a quota. */
+    public void checkQuota(String subjectCode, long bytes) {
+        if (subjectCode == null) return;
+        check(StorageUsage.SUBJECT, subjectCode, bytes, defaultSubjectQuota);
+        String courseId = courseOf(subjectCode);
+        if (courseId != null) check(StorageUsage.COURSE, courseId, bytes, defaultCourseQuota);
+    }
+
+    /** Adds (or, for a deleted lesson, subtracts) bytes to a subject and its course. */
+    public void add(String subjectCode, long delta) {
+        if (subjectCode == null || delta == 0) return;
+        addBytes(StorageUsage.SUBJECT, subjectCode, delta);
+        String courseId = courseOf(subjectCode);
+        if (courseId != null) addBytes(StorageUsage.COURSE, courseId, delta);
+    }
+
+    public List<StorageUsage> getUsage(String scope) {
+        return usageRepository.findByScopeOrderByBytesDesc(scope);
+    }
+
+    /** Sets a quota for one subject or course; null restores the default, 0 means unlimited. */
+    public StorageUsage setQuota(String scope, String scopeId, Long quotaBytes) {
+        if (!StorageUsage.SUBJECT.equals(scope) && !StorageUsage.COURSE.equals(scope)) {
+            throw new IllegalArgumentException("scope must be 'subject' or 'course'");
+        }
+        if (quotaBytes != null && quotaBytes < 0) throw new IllegalArgumentException("quotaBytes cannot be negative");
+        addBytes(scope, scopeId, 0); // make sure the row exists without touching its bytes
+        StorageUsage usage = usageRepository.findById(StorageUsage.idOf(scope, scopeId)).orElseThrow();
+        usage.setQuotaBytes(quotaBytes);
+        return usageRepository.save(usage);
+    }
+
+    /**
+     * Replaces every counter with the exact total from learning_materials. An upload
+     * landing mid-way can be missed until the next run, which is the drift this repairs.
+     */
+    public void reconcile() {
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query("SELECT subject_code, COALESCE(SUM(file_size), 0) FROM learning_materials " +
+                        "WHERE subject_code IS NOT NULL GROUP BY subject_code",
+                (RowCallbackHandler) rs -> rows.add(row(StorageUsage.SUBJECT, rs.getString(1), rs.getLong(2))));
+        jdbcTemplate.query("SELECT s.course_id, COALESCE(SUM(m.file_size), 0) FROM learning_materials m " +
+                        "JOIN subjects s ON s.code = m.subject_code WHERE s.course_id IS NOT NULL GROUP BY s.course_id",
+                (RowCallbackHandler) rs -> rows.add(row(StorageUsage.COURSE, rs.getString(1), rs.getLong(2))));
+
+        // Scopes with no lessons left go back to zero (their quota rows stay)
+        Set<String> seen = new HashSet<>();
+        for (Object[] row : rows) seen.add((String) row[0]);
+        for (StorageUsage usage : usageRepository.findAll()) {
+            if (!seen.contains(usage.getId()) && usage.getBytes() != 0) {
+                rows.add(row(usage.getScope(), usage.getScopeId(), 0));
+            }
+        }
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(SET_SQL, rows);
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    private void check(String scope, String scopeId, long bytes, long defaultQuota) {
+        StorageUsage usage = usageRepository.findById(StorageUsage.idOf(scope, scopeId)).orElse(null);
+        long used = usage == null ? 0 : usage.getBytes();
+        long quota = usage != null && usage.getQuotaBytes() != null ? usage.getQuotaBytes() : defaultQuota;
+        if (quota > 0 && used + bytes > quota) {
+            throw new StorageQuotaExceededException("Storage quota for " + scope + " " + scopeId + " exceeded: "
+                    + used + " of " + quota + " bytes used, upload is " + bytes + " bytes");
+        }
+    }
+
+    private String courseOf(String subjectCode) {
+        Subject subject = catalog.getSubject(subjectCode);
+        return subject == null ? null : subject.getCourseId();
+    }
+
+    private void addBytes(String scope, String scopeId, long delta) {
+        jdbcTemplate.update(ADD_SQL, StorageUsage.idOf(scope, scopeId), scope, scopeId, delta, delta);
+    }
+
+    private static Object[] row(String scope, String scopeId, long bytes) {
+        return new Object[]{StorageUsage.idOf(scope, scopeId), scope, scopeId, bytes};
+    }
+}
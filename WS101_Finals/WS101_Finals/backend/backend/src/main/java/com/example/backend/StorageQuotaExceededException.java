@@ -0,0 +1,9 @@
+package com.example.backend;
+
+/** An upload would take a subject or course past its storage quota (answered with 413). */
+public class StorageQuotaExceededException extends RuntimeException {
+
+    public StorageQuotaExceededException(String message) {
+        super(message);
+    }
+}
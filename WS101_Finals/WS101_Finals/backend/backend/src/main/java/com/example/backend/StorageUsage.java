@@ -0,0 +1,52 @@
+package com.example.backend;
+
+import jakarta.persistence.*;
+
+/**
+ * Bytes of lesson files stored for one subject or one course, with an optional
+ * quota. Counters are adjusted as lessons are added and deleted and reset to
+ * exact totals by {@link UploadReconciler}.
+ */
+@Entity
+@Table(name = "storage_usage")
+public class StorageUsage {
+
+    public static final String SUBJECT = "subject";
+    public static final String COURSE = "course";
+
+    @Id
+    @Column(length = 120)
+    private String id; // "<scope>:<scopeId>", e.g. "subject:CC101"
+
+    @Column(nullable = false, length = 10)
+    private String scope; // "subject" or "course"
+
+    @Column(name = "scope_id", nullable = false, length = 100)
+    private String scopeId;
+
+    @Column(nullable = false)
+    private long bytes;
+
+    @Column(name = "quota_bytes")
+    private Long quotaBytes; // null: the storage.quota.* default applies; 0: unlimited
+
+    public static String idOf(String scope, String scopeId) {
+        return scope + ":" + scopeId;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public String getScopeId() { return scopeId; }
+    public void setScopeId(String scopeId) { this.scopeId = scopeId; }
+
+    public long getBytes() { return bytes; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+
+    public Long getQuotaBytes() { return quotaBytes; }
+    public void setQuotaBytes(Long quotaBytes) { this.quotaBytes = quotaBytes; }
+}
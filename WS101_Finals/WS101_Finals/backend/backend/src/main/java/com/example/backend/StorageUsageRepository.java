@@ -0,0 +1,12 @@
+package com.example.backend;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, String> {
+
+    List<StorageUsage> findByScopeOrderByBytesDesc(String scope);
+}
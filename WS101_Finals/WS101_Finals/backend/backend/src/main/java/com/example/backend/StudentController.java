@@ -1,8 +1,23 @@
 package com.example.backend;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -10,57 +25,96 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*") // Allows your HTML to talk to this Java file
 public class StudentController {
 
-    @Autowired private SubjectRepository subjectRepository;
+    @Autowired private CatalogService catalog;
     @Autowired private QuizRepository quizRepository;
 
     // ✅ 1. ADD THIS REPOSITORY LINK
     @Autowired private LearningMaterialRepository materialRepository;
 
     @Autowired private ActivityLogRepository logRepository;
+    @Autowired private PdfPreviewService pdfPreviews;
+    @Autowired private SearchIndexService searchIndex;
+    @Autowired private CatalogVersionService versions;
 
     // Existing Quiz Method (Keep this)
     @GetMapping("/quizzes")
-    public List<Quiz> getStudentQuizzes(@RequestParam String courseId) {
-        List<String> subjectCodes = subjectRepository.findByCourseId(courseId)
-                .stream()
-                .map(Subject::getCode)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<Quiz>> getStudentQuizzes(@RequestParam String courseId, WebRequest request) {
+        return versions.respond(request, versions.course(courseId), () -> {
+            List<String> subjectCodes = catalog.getSubjectsByCourse(courseId)
+                    .stream()
+                    .map(Subject::getCode)
+                    .collect(Collectors.toList());
 
-        if (subjectCodes.isEmpty()) return List.of();
+            if (subjectCodes.isEmpty()) return List.of();
 
-        return quizRepository.findAll().stream()
-                .filter(q -> subjectCodes.contains(q.getSubjectCode()))
-                .collect(Collectors.toList());
+            return quizRepository.findBySubjectCodeIn(subjectCodes);
+        });
     }
 
     // ==========================================
     // ✅ 2. ADD THIS NEW METHOD (THE FIX)
     // ==========================================
     @GetMapping("/materials")
-    public List<LearningMaterial> getMaterials(
+    public ResponseEntity<List<LearningMaterial>> getMaterials(
             @RequestParam String subjectCode,
             @RequestParam(required = false) String type,
-            @RequestParam(required = false) Long moduleId
+            @RequestParam(required = false) Long moduleId,
+            WebRequest request
     ) {
-        // Logic to filter by Module ID if present
-        if (moduleId != null) {
+        return versions.respond(request, versions.subject(subjectCode), () -> {
+            // Logic to filter by Module ID if present
+            if (moduleId != null) {
+                if (type != null) {
+                    return materialRepository.findBySubjectCodeAndTypeAndModuleId(subjectCode, type, moduleId);
+                }
+                // If no type specified, return everything for that module
+                return materialRepository.findBySubjectCodeAndModuleId(subjectCode, moduleId);
+            }
+
+            // Logic to filter just by Subject and Type (e.g., all PDFs for a subject)
             if (type != null) {
-                return materialRepository.findBySubjectCodeAndTypeAndModuleId(subjectCode, type, moduleId);
+                return materialRepository.findBySubjectCodeAndType(subjectCode, type);
             }
-            // If no type specified, return everything for that module
-            return materialRepository.findAll().stream()
-                    .filter(m -> m.getSubjectCode().equals(subjectCode) &&
-                            m.getModuleId() != null &&
-                            m.getModuleId().equals(moduleId))
-                    .collect(Collectors.toList());
-        }
 
-        // Logic to filter just by Subject and Type (e.g., all PDFs for a subject)
-        if (type != null) {
-            return materialRepository.findBySubjectCodeAndType(subjectCode, type);
+            return List.of();
+        });
+    }
+
+    // Page N (1-based) of a PDF material as a small JPEG, to check a file before downloading it
+    @GetMapping("/materials/{id}/pages/{page}/preview")
+    public ResponseEntity<?> getPagePreview(
+            @PathVariable Long id,
+            @PathVariable int page,
+            @RequestParam(required = false) Integer width
+    ) throws Exception {
+        LearningMaterial material = materialRepository.findById(id).orElse(null);
+        if (material == null || !"pdf".equals(material.getType())) return ResponseEntity.notFound().build();
+
+        Path preview;
+        try {
+            preview = pdfPreviews.getPreview(material, page, PdfPreviewService.normalizeWidth(width))
+                    .get(30, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            // Renderer is saturated; let the client retry shortly instead of queueing without bound
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "2").build();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException invalid) throw invalid;
+            throw e;
         }
 
-        return List.of();
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+                .body(new FileSystemResource(preview));
     }
 
-}
\ No newline at end of file
+    // Full-text search over lesson files and course/subject/module titles, best match first
+    @GetMapping("/search")
+    public List<Map<String, Object>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String subjectCode,
+            @RequestParam(defaultValue = "20") int limit
+    ) throws IOException {
+        return searchIndex.search(q, subjectCode, Math.max(1, Math.min(limit, 100)));
+    }
+}
@@ -3,7 +3,9 @@ package com.example.backend;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "subjects")
+@Table(name = "subjects", indexes = {
+        @Index(name = "idx_subjects_course_id", columnList = "course_id")
+})
 public class Subject {
     @Id
     @Column(length = 50)
@@ -0,0 +1,191 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Unread notification counts per user, kept exactly in step with the database
+ * on a single node.
+ *
+ * Every change for one user runs its committed database write and the counter
+ * adjustment under that user's stripe lock, and the lazy load takes the same
+ * lock, so a load can never observe a write the counter has not seen yet.
+ * Broadcasts touch many users at once and take the exclusive side of a
+ * read/write lock instead; they are rare, so per-user traffic only pays for an
+ * uncontended read lock.
+ */
+@Component
+public class UnreadCountCache {
+
+    private static final int STRIPES = 64;
+
+    @Value("${notifications.unread-cache.max-users:50000}")
+    private int maxUsers;
+
+    @Value("${notifications.unread-cache.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock broadcastLock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UnreadCountCache() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * What a loader reports for a user on first access. Unknown users still get
+     * their personal count cached but never match a broadcast audience.
+     */
+    public record Loaded(long count, String role, String courseId, boolean receivesBroadcasts) {}
+
+    public long get(Long userId, Function<Long, Loaded> loader) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            hits.increment();
+            entry.touch();
+            return entry.count.get();
+        }
+
+        misses.increment();
+        return withUserLock(userId, () -> {
+            Entry existing = entries.get(userId);
+            if (existing != null) return existing.count.get();
+
+            Loaded loaded = loader.apply(userId);
+            entries.put(userId, new Entry(loaded));
+            if (entries.size() > maxUsers) evictLeastRecentlyUsed();
+            return loaded.count();
+        });
+    }
+
+    /**
+     * Runs a committed database write for one user and then adjusts the cached
+     * count with the write's result (e.g. rows marked read).
+     */
+    public <T> T update(Long userId, Supplier<T> write, Function<T, LongUnaryOperator> adjust) {
+        return withUserLock(userId, () -> {
+            T result = write.get();
+            Entry entry = entries.get(userId);
+            if (entry != null) entry.count.updateAndGet(adjust.apply(result));
+            return result;
+        });
+    }
+
+    /** Runs a committed broadcast write and bumps every cached member of its audience. */
+    public <T> T broadcast(Audience audience, Supplier<T> write) {
+        broadcastLock.writeLock().lock();
+        try {
+            T result = write.get();
+            for (Entry entry : entries.values()) {
+                if (entry.receivesBroadcasts && audience.matches(entry.role, entry.courseId)) {
+                    entry.count.incrementAndGet();
+                }
+            }
+            return result;
+        } finally {
+            broadcastLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a write that can change many users' counts in ways the cache cannot
+     * follow (e.g. purging broadcasts) and starts over from the database.
+     */
+    public <T> T resetAfter(Supplier<T> write) {
+        broadcastLock.writeLock().lock();
+        try {
+            T result = write.get();
+            entries.clear();
+            return result;
+        } finally {
+            broadcastLock.writeLock().unlock();
+        }
+    }
+
+    /** Forgets a user whose audience (role or course) changed or who was deleted. */
+    public void invalidate(Long userId) {
+        withUserLock(userId, () -> entries.remove(userId));
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxUsers", maxUsers);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        return stats;
+    }
+
+    // Dropping an entry is always safe: the next access reloads it from the database
+    @Scheduled(fixedRate = 60000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000;
+        entries.entrySet().removeIf(e -> {
+            boolean idle = e.getValue().lastAccess < cutoff;
+            if (idle) evictions.increment();
+            return idle;
+        });
+    }
+
+    private void evictLeastRecentlyUsed() {
+        List<Map.Entry<Long, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+        snapshot.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        int toRemove = Math.max(1, snapshot.size() - maxUsers + maxUsers / 10); // free 10% headroom
+        for (int i = 0; i < toRemove && i < snapshot.size(); i++) {
+            if (entries.remove(snapshot.get(i).getKey(), snapshot.get(i).getValue())) evictions.increment();
+        }
+    }
+
+    private <T> T withUserLock(Long userId, Supplier<T> action) {
+        ReentrantLock stripe = stripes[Math.floorMod(userId.hashCode(), STRIPES)];
+        broadcastLock.readLock().lock();
+        stripe.lock();
+        try {
+            return action.get();
+        } finally {
+            stripe.unlock();
+            broadcastLock.readLock().unlock();
+        }
+    }
+
+    private static class Entry {
+        final AtomicLong count;
+        final String role;
+        final String courseId;
+        final boolean receivesBroadcasts;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Entry(Loaded loaded) {
+            this.count = new AtomicLong(loaded.count());
+            this.role = loaded.role();
+            this.courseId = loaded.courseId();
+            this.receivesBroadcasts = loaded.receivesBroadcasts();
+        }
+
+        void touch() { lastAccess = System.currentTimeMillis(); }
+    }
+}
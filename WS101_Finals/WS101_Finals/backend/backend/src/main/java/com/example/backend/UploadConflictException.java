@@ -0,0 +1,9 @@
+package com.example.backend;
+
+/** A chunk arrived for an upload that is being completed or aborted (answered with 409). */
+public class UploadConflictException extends RuntimeException {
+
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
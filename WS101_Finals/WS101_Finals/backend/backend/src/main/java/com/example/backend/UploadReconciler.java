@@ -0,0 +1,168 @@
+package com.example.backend;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Nightly pass that deletes stored files no record points at any more (replaced
+ * course images and profile pictures, deleted lessons) and resets the storage
+ * counters to exact totals.
+ *
+ * The blob listing is streamed and compared with the references in
+ * learning_materials, courses and users. Because identical uploads share one
+ * blob, an unreferenced file is only deleted when it has not been written or
+ * reused (ContentStore touches a blob an upload is deduplicated against) for
+ * storage.gc.grace-hours, and is still unreferenced and that old when checked
+ * again right before deletion. Nothing is kept between runs, so restarts and
+ * other nodes see the same state.
+ */
+@Component
+public class UploadReconciler {
+
+    @Autowired private BlobStore blobStore;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private StorageAccountingService storageAccounting;
+    @Autowired private CatalogVersionService versions;
+    @Autowired private TransactionTemplate transactions;
+
+    @Value("${storage.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.gc.grace-hours:12}")
+    private long graceHours;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    private record Candidate(String key, long size) {}
+
+    @Scheduled(cron = "${storage.gc.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        try {
+            run();
+        } catch (Exception e) {
+            System.err.println("Upload reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    public synchronized Map<String, Object> run() throws IOException {
+        long now = System.currentTimeMillis();
+        long graceMillis = graceHours * 3_600_000L;
+
+        int backfilled = backfillFileSizes();
+        storageAccounting.reconcile();
+
+        Set<String> referenced = new HashSet<>();
+        RowCallbackHandler collect = rs -> referenced.add(rs.getString(1));
+        jdbcTemplate.query("SELECT file_path FROM learning_materials WHERE file_path IS NOT NULL", collect);
+        jdbcTemplate.query("SELECT image FROM courses WHERE image IS NOT NULL", collect);
+        jdbcTemplate.query("SELECT profile_picture FROM users WHERE profile_picture IS NOT NULL", collect);
+        Set<String> referencedBases = new HashSet<>();
+        for (String reference : referenced) referencedBases.add(stripExtension(reference));
+
+        long[] scanned = {0, 0}; // files, bytes
+        long[] orphans = {0};
+        List<Candidate> candidates = new ArrayList<>();
+        blobStore.forEach((key, info) -> {
+            scanned[0]++;
+            scanned[1] += info.size();
+            String variantOf = ImageVariant.originalBaseOf(key);
+            if (referenced.contains(key) || (variantOf != null && referencedBases.contains(variantOf))) return;
+
+            orphans[0]++;
+            if (now - info.lastModified() >= graceMillis) candidates.add(new Candidate(key, info.size()));
+        });
+
+        int deleted = 0;
+        long reclaimed = 0;
+        for (Candidate candidate : candidates) {
+            // Reused by an upload since the listing: touched, or already referenced
+            BlobStore.BlobInfo current = blobStore.stat(candidate.key());
+            if (current == null || System.currentTimeMillis() - current.lastModified() < graceMillis) continue;
+            if (isReferenced(candidate.key())) continue;
+            if (blobStore.delete(candidate.key())) {
+                deleted++;
+                reclaimed += candidate.size();
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("finishedAt", System.currentTimeMillis());
+        result.put("durationMs", System.currentTimeMillis() - now);
+        result.put("scannedFiles", scanned[0]);
+        result.put("scannedBytes", scanned[1]);
+        result.put("orphanedFiles", orphans[0]);
+        result.put("deletedFiles", deleted);
+        result.put("reclaimedBytes", reclaimed);
+        result.put("backfilledSizes", backfilled);
+        lastRun = result;
+        System.out.println("Upload reconciliation: " + result);
+        return result;
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    // ==========================================
+    // INTERNALS
+    // ==========================================
+
+    // Lessons saved before file sizes were recorded
+    private int backfillFileSizes() throws IOException {
+        List<Object[]> missing = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, file_path, subject_code FROM learning_materials WHERE file_size IS NULL AND file_path IS NOT NULL AND (type IS NULL OR type <> 'quiz')",
+                (RowCallbackHandler) rs -> missing.add(new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3)}));
+        int updated = 0;
+        for (Object[] row : missing) {
+            String reference = (String) row[1];
+            if (reference.contains("/")) continue; // links, not stored files
+            BlobStore.BlobInfo info = blobStore.stat(reference);
+            if (info == null) continue;
+            boolean changed = Boolean.TRUE.equals(transactions.execute(tx -> {
+                if (jdbcTemplate.update("UPDATE learning_materials SET file_size = ? WHERE id = ?", info.size(), row[0]) == 0) return false;
+                versions.subjectContentChanged((String) row[2]);
+                return true;
+            }));
+            if (changed) updated++;
+        }
+        return updated;
+    }
+
+    private boolean isReferenced(String key) {
+        if (countReferences(escapeLike(key)) > 0) return true;
+        String variantOf = ImageVariant.originalBaseOf(key);
+        return variantOf != null && countReferences(escapeLike(variantOf) + ".%") > 0;
+    }
+
+    private long countReferences(String likePattern) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM learning_materials WHERE file_path LIKE ?)" +
+                " + (SELECT COUNT(*) FROM courses WHERE image LIKE ?)" +
+                " + (SELECT COUNT(*) FROM users WHERE profile_picture LIKE ?)",
+                Long.class, likePattern, likePattern, likePattern);
+        return count == null ? 0 : count;
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -2,9 +2,13 @@ package com.example.backend;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role", columnList = "role"),
+        @Index(name = "idx_users_course_id", columnList = "course_id")
+})
 public class User {
 
     @Id
@@ -114,6 +118,9 @@ public class User {
         this.updatedAt = LocalDateTime.now();
     }
 
+    // Resized copies, e.g. {"thumb": "<picture>?size=thumb", ...}; null when there is no picture
+    public Map<String, String> getProfilePictureVariants() { return ImageVariant.urlsFor(profilePicture); }
+
     public String getResetToken() { return resetToken; }
     public void setResetToken(String resetToken) { this.resetToken = resetToken; }
 
@@ -0,0 +1,132 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin user listing read straight from JDBC into {@link UserSummary} records:
+ * only the listed columns are selected and no entities are created, so neither
+ * the persistence context nor the response ever sees passwords or reset tokens.
+ *
+ * Pages are offset-based with a whitelisted sort column plus id as tie-breaker;
+ * the export writes every matching row to the response as it is read.
+ */
+@Component
+public class UserDirectory {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "username", "username",
+            "role", "role",
+            "courseId", "course_id",
+            "createdAt", "created_at"
+    );
+
+    private static final RowMapper<UserSummary> SUMMARY = (rs, i) -> new UserSummary(
+            rs.getLong("id"), rs.getString("username"), rs.getString("role"), rs.getString("course_id"));
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    private JdbcTemplate streamingJdbc;
+
+    /** role and courseId match exactly; query is a prefix of the username, full name or email. */
+    public record Filter(String role, String courseId, String query) {}
+
+    public record Page(List<UserSummary> content, int page, int size, boolean hasNext) {}
+
+    @PostConstruct
+    public void init() {
+        streamingJdbc = new JdbcTemplate(dataSource);
+        streamingJdbc.setFetchSize(Integer.MIN_VALUE); // MySQL: stream rows instead of buffering the result set
+    }
+
+    public Page findPage(Filter filter, String sort, boolean ascending, int page, int size) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id, username, role, course_id FROM users");
+        appendWhere(sql, args, filter);
+        appendOrder(sql, sort, ascending);
+        sql.append(" LIMIT ? OFFSET ?");
+        args.add(size + 1); // one extra row tells us whether there is a next page, without a COUNT
+        args.add((long) page * size);
+
+        List<UserSummary> rows = jdbcTemplate.query(sql.toString(), SUMMARY, args.toArray());
+        boolean hasNext = rows.size() > size;
+        return new Page(hasNext ? rows.subList(0, size) : rows, page, size, hasNext);
+    }
+
+    public long count(Filter filter) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM users");
+        appendWhere(sql, args, filter);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return count == null ? 0 : count;
+    }
+
+    /** Every matching user as a JSON array, written row by row. */
+    public void writeAll(Filter filter, String sort, boolean ascending, OutputStream out) throws IOException {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id, username, role, course_id FROM users");
+        appendWhere(sql, args, filter);
+        appendOrder(sql, sort, ascending);
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            streamingJdbc.query(sql.toString(), rs -> {
+                try {
+                    json.writeObject(SUMMARY.mapRow(rs, 0));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // client went away; abort the query
+                }
+            }, args.toArray());
+            json.writeEndArray();
+        }
+    }
+
+    private static void appendWhere(StringBuilder sql, List<Object> args, Filter filter) {
+        sql.append(" WHERE 1 = 1");
+        if (filter.role() != null) {
+            sql.append(" AND role = ?");
+            args.add(filter.role());
+        }
+        if (filter.courseId() != null) {
+            sql.append(" AND course_id = ?");
+            args.add(filter.courseId());
+        }
+        if (filter.query() != null) {
+            String prefix = filter.query().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            sql.append(" AND (username LIKE ? OR full_name LIKE ? OR email LIKE ?)");
+            args.add(prefix);
+            args.add(prefix);
+            args.add(prefix);
+        }
+    }
+
+    public static void validateSort(String sort) {
+        if (!SORT_COLUMNS.containsKey(sort)) throw new IllegalArgumentException("sort must be one of " + SORT_COLUMNS.keySet());
+    }
+
+    private static void appendOrder(StringBuilder sql, String sort, boolean ascending) {
+        validateSort(sort);
+        String column = SORT_COLUMNS.get(sort);
+        String direction = ascending ? "ASC" : "DESC";
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction);
+        if (!column.equals("id")) sql.append(", id ").append(direction);
+    }
+}
@@ -27,6 +27,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findAllByIdIn(List<Long> ids);
 
+    // Just the columns the audience index needs, without loading entities
+    interface AudienceRow {
+        Long getId();
+        String getRole();
+        String getCourseId();
+    }
+
+    @Query("SELECT u.id AS id, u.role AS role, u.courseId AS courseId FROM User u")
+    List<AudienceRow> findAudienceRows();
+
     @Query("SELECT u FROM User u WHERE u.courseId = :courseId AND u.role = :role")
     List<User> findByCourseIdAndRole(@Param("courseId") String courseId, @Param("role") String role);
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.example.backend;
+
+/** The columns the admin user list shows; never the password or reset token. */
+public record UserSummary(Long id, String username, String role, String courseId) {}
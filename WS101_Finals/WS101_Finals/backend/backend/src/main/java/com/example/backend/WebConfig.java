@@ -1,26 +1,56 @@
 package com.example.backend;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Names produced by the buildFrontend Gradle task, e.g. js/home-3f9a1c0b7d2e.js
+    private static final Pattern FINGERPRINTED = Pattern.compile("-[0-9a-f]{12}\\.[A-Za-z0-9]+$");
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    @Autowired private ContentEtags contentEtags;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve static files from the static directory
+        // Static files packed by buildFrontend; a .br/.gz sibling is served when the client accepts it
         registry.addResourceHandler("/**")
                 .addResourceLocations("classpath:/static/")
-                .setCachePeriod(0);
+                .setEtagGenerator(contentEtags::forResource)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
 
-        // Serve uploaded files
-        Path uploadDir = Paths.get("uploads");
-        String uploadPath = uploadDir.toFile().getAbsolutePath();
+        // Uploaded files are served by MediaController (ranges, ETags, sendfile)
+    }
 
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadPath + "/");
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Fingerprinted URLs change with their content, so they never need revalidating;
+        // HTML and anything else keeps its URL and is revalidated (usually a 304)
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof ResourceHttpRequestHandler) {
+                    boolean immutable = FINGERPRINTED.matcher(request.getRequestURI()).find();
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+                }
+                return true;
+            }
+        });
     }
-}
\ No newline at end of file
+}
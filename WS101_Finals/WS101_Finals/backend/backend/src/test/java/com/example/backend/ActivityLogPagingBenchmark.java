@@ -0,0 +1,164 @@
+package com.example.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Grows activity_logs through several sizes up to 50M rows and measures the
+ * admin log page (first page plus a few afterId hops) unfiltered and with each
+ * kind of filter the page sends. The target is p99 under 50 ms at 50M rows.
+ *
+ * Runs in its own MySQL schema like {@link NotificationPagingBenchmark}
+ * (learning_hub_benchmark; override with -Dbenchmark.datasource.url) and
+ * empties activity_logs there when done:
+ * ./gradlew benchmark -Dbenchmark.log-rows=50000000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ActivityLogPagingBenchmark {
+
+    private static final String DATASOURCE_URL = System.getProperty("benchmark.datasource.url",
+            "jdbc:mysql://localhost:3306/learning_hub_benchmark?createDatabaseIfNotExist=true&useSSL=false"
+                    + "&serverTimezone=UTC&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true");
+
+    private static final long TARGET_ROWS = Long.getLong("benchmark.log-rows", 50_000_000L);
+    private static final double P99_TARGET_MS = 50.0;
+    private static final int SEED_BATCH = 5_000;
+    private static final int SAMPLES = 200;
+    private static final int PAGES_PER_SAMPLE = 4;
+    private static final int PAGE_SIZE = 100;
+
+    // Roughly the mix the controllers log: mostly logins, then edits, a few user and course changes
+    private static final String[] ACTIONS = {
+            "Logged in to student portal", "Logged in to student portal", "Logged in to student portal",
+            "Logged in to professor portal", "Profile updated", "Uploaded Lesson: Week 1",
+            "User created", "User deleted", "Course created", "Course updated", "Course deleted"
+    };
+    private static final String[] ROLES = {"student", "student", "student", "professor", "admin", "System"};
+    private static final int USERNAMES = 20_000;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ActivityLogStore activityLogStore;
+    @Autowired private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void benchmarkSchema(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATASOURCE_URL);
+        registry.add("activity-log.store", () -> "jdbc");
+    }
+
+    private boolean isolated;
+
+    // Truncating below must never reach the application's own schema
+    @BeforeAll
+    void requireBenchmarkSchema() {
+        String schema = jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+        isolated = schema != null && schema.contains("benchmark");
+        assumeTrue(isolated,
+                "benchmark.datasource.url must point at a schema named *benchmark*, not " + schema);
+    }
+
+    @AfterAll
+    void dropSeededRows() {
+        if (!isolated || Boolean.getBoolean("benchmark.keep-rows")) return;
+        jdbcTemplate.execute("TRUNCATE TABLE activity_logs");
+    }
+
+    @Test
+    void pageLatencyStaysUnderTargetAt50MRows() throws IOException {
+        Map<String, ActivityLogFilter> filters = new LinkedHashMap<>();
+        filters.put("all", new ActivityLogFilter(null, null, null, null, null));
+        filters.put("user actions", new ActivityLogFilter(null, List.of("User created", "User deleted"), null, null, null));
+        filters.put("course actions", new ActivityLogFilter(null,
+                List.of("Course created", "Course updated", "Course deleted"), null, null, null));
+        filters.put("role", new ActivityLogFilter(null, null, "professor", null, null));
+        filters.put("username", new ActivityLogFilter("user-42", null, null, null, null));
+        filters.put("last 7 days", new ActivityLogFilter(null, null, null, LocalDateTime.now().minusDays(7), null));
+
+        double worst = 0;
+        for (long checkpoint : new long[]{1_000_000L, 10_000_000L, 50_000_000L}) {
+            if (checkpoint > TARGET_ROWS) break;
+            seedUntil(checkpoint);
+            for (Map.Entry<String, ActivityLogFilter> filter : filters.entrySet()) {
+                double[] latency = measure(filter.getValue());
+                System.out.printf("rows=%,d  %-14s p50=%.2fms  p99=%.2fms%n",
+                        checkpoint, filter.getKey(), latency[0], latency[1]);
+                if (checkpoint == Math.min(TARGET_ROWS, 50_000_000L)) worst = Math.max(worst, latency[1]);
+            }
+        }
+        assertTrue(worst < P99_TARGET_MS, "p99 log page latency " + worst + "ms, target " + P99_TARGET_MS + "ms");
+    }
+
+    private void seedUntil(long rows) {
+        long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM activity_logs", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (existing < rows) {
+            int batch = (int) Math.min(SEED_BATCH, rows - existing);
+            List<Object[]> args = new ArrayList<>(batch);
+            for (int i = 0; i < batch; i++) {
+                args.add(new Object[]{
+                        "user-" + random.nextInt(USERNAMES),
+                        ACTIONS[random.nextInt(ACTIONS.length)],
+                        ROLES[random.nextInt(ROLES.length)],
+                        Timestamp.valueOf(now.minusSeconds(random.nextLong(2L * 365 * 24 * 3600)))
+                });
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO activity_logs (username, action, role, timestamp) VALUES (?, ?, ?, ?)", args);
+            existing += batch;
+        }
+    }
+
+    // Returns {p50, p99} in milliseconds for one page, including streaming it as JSON.
+    // Half the samples start at the newest row, half somewhere deep in the table.
+    private double[] measure(ActivityLogFilter filter) throws IOException {
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM activity_logs", Long.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] samples = new double[SAMPLES * PAGES_PER_SAMPLE];
+        int n = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            Long afterId = i % 2 == 0 ? null : 1 + random.nextLong(maxId);
+            for (int page = 0; page < PAGES_PER_SAMPLE; page++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                long start = System.nanoTime();
+                if (afterId != null) activityLogStore.checkCursor(afterId);
+                activityLogStore.writePage(filter, afterId, PAGE_SIZE, out);
+                samples[n++] = (System.nanoTime() - start) / 1_000_000.0;
+
+                JsonNode rows = objectMapper.readTree(out.toByteArray());
+                if (rows.size() < PAGE_SIZE) break;
+                afterId = rows.get(rows.size() - 1).get("id").asLong();
+            }
+        }
+        double[] taken = Arrays.copyOf(samples, n);
+        Arrays.sort(taken);
+        return new double[]{taken[(int) (n * 0.50)], taken[Math.min(n - 1, (int) (n * 0.99))]};
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LocalBlobStore against a temporary uploads.dir: the sharded layout, range
+ * reads, the shard walk behind forEach, migration of flat files left by older
+ * versions, and nginx secure_link URLs.
+ */
+class LocalBlobStoreTests {
+
+    @TempDir Path root;
+
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = newStore();
+    }
+
+    @Test
+    void putMovesTheFileIntoItsShard() throws IOException {
+        store.put("a.pdf", source("hello"));
+
+        Path file = store.localFile("a.pdf");
+        assertNotNull(file);
+        assertEquals(3, root.relativize(file).getNameCount()); // ab/cd/a.pdf
+        assertEquals(5, store.stat("a.pdf").size());
+        assertNull(store.stat("missing.pdf"));
+    }
+
+    @Test
+    void rangeReadsReturnOnlyTheRequestedBytes() throws IOException {
+        store.put("digits.txt", source("0123456789"));
+
+        assertEquals("2345", read(store.open("digits.txt", 2, 5)));
+        assertEquals("789", read(store.open("digits.txt", 7, -1)));
+        assertEquals("0123456789", read(store.open("digits.txt")));
+    }
+
+    @Test
+    void forEachVisitsBlobsButNotStagingOrTempFiles() throws IOException {
+        store.put("one.pdf", source("1"));
+        store.put("two.jpg", source("22"));
+        Files.createDirectories(root.resolve(".chunked"));
+        Files.writeString(root.resolve(".chunked/upload.data"), "staged");
+        Path shard = store.localFile("one.pdf").getParent();
+        Files.writeString(shard.resolve(".tmp-partial"), "partial");
+
+        Set<String> keys = new HashSet<>();
+        store.forEach((key, info) -> keys.add(key + ":" + info.size()));
+        assertEquals(Set.of("one.pdf:1", "two.jpg:2"), keys);
+    }
+
+    @Test
+    void startupMovesFlatFilesIntoShards() throws IOException {
+        Files.writeString(root.resolve("legacy.docx"), "old layout");
+        Files.writeString(root.resolve(".tmp-upload"), "in progress");
+
+        LocalBlobStore restarted = newStore();
+
+        assertFalse(Files.exists(root.resolve("legacy.docx")));
+        assertTrue(Files.exists(root.resolve(".tmp-upload")));
+        assertEquals("old layout", read(restarted.open("legacy.docx")));
+    }
+
+    @Test
+    void presignBuildsASecureLinkUrl() throws Exception {
+        assertNull(store.presign("a.pdf", Duration.ofMinutes(5))); // no public URL configured
+
+        ReflectionTestUtils.setField(store, "publicBaseUrl", "https://files.example.com/uploads/");
+        ReflectionTestUtils.setField(store, "signingSecret", "s3cret");
+        store.put("a.pdf", source("hello"));
+
+        URI url = store.presign("a.pdf", Duration.ofMinutes(5));
+        String shardPath = root.relativize(store.localFile("a.pdf")).toString().replace('\\', '/');
+        assertEquals("/uploads/" + shardPath, url.getRawPath());
+
+        String expires = url.getQuery().replaceAll(".*expires=(\\d+).*", "$1");
+        byte[] md5 = MessageDigest.getInstance("MD5")
+                .digest((expires + url.getRawPath() + " s3cret").getBytes(StandardCharsets.UTF_8));
+        assertTrue(url.getQuery().startsWith("md5=" + Base64.getUrlEncoder().withoutPadding().encodeToString(md5)));
+    }
+
+    @Test
+    void touchResetsTheModificationTime() throws IOException {
+        store.put("reused.pdf", source("same bytes"));
+        Files.setLastModifiedTime(store.localFile("reused.pdf"), FileTime.from(Instant.now().minus(Duration.ofDays(3))));
+
+        assertTrue(store.touch("reused.pdf"));
+        assertTrue(System.currentTimeMillis() - store.stat("reused.pdf").lastModified() < 60_000);
+        assertFalse(store.touch("missing.pdf"));
+    }
+
+    @Test
+    void failedPutLeavesTheSourceInPlace() throws IOException {
+        store.put("blocked.pdf", source("old"));
+        Path target = store.localFile("blocked.pdf");
+        Files.delete(target);
+        Files.createDirectories(target.resolve("in-the-way")); // the final rename cannot replace it
+
+        Path source = source("retry me");
+        assertThrows(IOException.class, () -> store.put("blocked.pdf", source));
+        assertEquals("retry me", Files.readString(source));
+    }
+
+    @Test
+    void deleteReportsWhetherThereWasABlob() throws IOException {
+        store.put("gone.pdf", source("x"));
+
+        assertTrue(store.delete("gone.pdf"));
+        assertFalse(store.delete("gone.pdf"));
+        assertNull(store.localFile("gone.pdf"));
+    }
+
+    private LocalBlobStore newStore() throws IOException {
+        LocalBlobStore s = new LocalBlobStore();
+        ReflectionTestUtils.setField(s, "uploadDir", root.toString());
+        ReflectionTestUtils.setField(s, "fanoutLevels", 2);
+        ReflectionTestUtils.setField(s, "publicBaseUrl", "");
+        ReflectionTestUtils.setField(s, "signingSecret", "");
+        s.init();
+        return s;
+    }
+
+    // Staged next to uploads.dir, as ContentStore does
+    private Path source(String content) throws IOException {
+        Path file = Files.createTempFile(root, ".tmp-", ".part");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.backend;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Grows the notifications table through several sizes and measures page
+ * latency (first page plus a few cursor hops) at each one, for a user's inbox
+ * and for the admin view of everything. Keyset pages should cost the same at
+ * 1M rows as at tens of millions.
+ *
+ * The seeded users are real rows with roles and courses, and announcements are
+ * seeded for every kind of audience (with some read markers and watermarks), so
+ * both paths include the broadcast merge.
+ *
+ * Runs in its own MySQL schema (learning_hub_benchmark, created if missing;
+ * override with -Dbenchmark.datasource.url) and empties the tables it seeded
+ * there when done, so the application database is never touched:
+ * ./gradlew benchmark -Dbenchmark.rows=20000000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NotificationPagingBenchmark {
+
+    private static final String DATASOURCE_URL = System.getProperty("benchmark.datasource.url",
+            "jdbc:mysql://localhost:3306/learning_hub_benchmark?createDatabaseIfNotExist=true&useSSL=false"
+                    + "&serverTimezone=UTC&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true");
+
+    private static final long TARGET_ROWS = Long.getLong("benchmark.rows", 20_000_000L);
+    private static final int USERS = 20_000;
+    private static final int COURSES = 20;
+    private static final int BROADCASTS = 20_000; // about one a minute across a busy term's working hours
+    private static final int SEED_BATCH = 5_000;
+    private static final int SAMPLES = 300;
+    private static final int PAGES_PER_SAMPLE = 4;
+    private static final String USERNAME_PREFIX = "benchmark-user-";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private NotificationService notificationService;
+
+    @DynamicPropertySource
+    static void benchmarkSchema(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATASOURCE_URL);
+    }
+
+    private boolean isolated;
+    private long[] userIds;
+
+    // Truncating below must never reach the application's own schema
+    @BeforeAll
+    void requireBenchmarkSchema() {
+        String schema = jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+        isolated = schema != null && schema.contains("benchmark");
+        assumeTrue(isolated,
+                "benchmark.datasource.url must point at a schema named *benchmark*, not " + schema);
+        userIds = seedUsers();
+        seedBroadcasts();
+    }
+
+    @AfterAll
+    void dropSeededRows() {
+        if (!isolated || Boolean.getBoolean("benchmark.keep-rows")) return;
+        jdbcTemplate.execute("TRUNCATE TABLE notifications");
+        jdbcTemplate.execute("TRUNCATE TABLE broadcast_notifications");
+        jdbcTemplate.execute("TRUNCATE TABLE broadcast_reads");
+        jdbcTemplate.execute("TRUNCATE TABLE notification_read_marks");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", USERNAME_PREFIX + "%");
+    }
+
+    @Test
+    void pageLatencyStaysFlatAsTableGrows() {
+        List<double[]> results = new ArrayList<>();
+        for (long checkpoint : new long[]{100_000L, 1_000_000L, 5_000_000L, 10_000_000L, 20_000_000L, 50_000_000L}) {
+            if (checkpoint > TARGET_ROWS) break;
+            seedUntil(checkpoint);
+            double[] inbox = measure(true);
+            double[] all = measure(false);
+            results.add(new double[]{checkpoint, inbox[1], all[1]});
+            System.out.printf("rows=%,d  inbox p50=%.2fms p99=%.2fms  all p50=%.2fms p99=%.2fms%n",
+                    checkpoint, inbox[0], inbox[1], all[0], all[1]);
+        }
+
+        double[] smallest = results.get(0);
+        double[] largest = results.get(results.size() - 1);
+        assertTrue(largest[1] <= Math.max(3 * smallest[1], 20.0),
+                "p99 inbox page latency grew from " + smallest[1] + "ms to " + largest[1] + "ms");
+        assertTrue(largest[2] <= Math.max(3 * smallest[2], 20.0),
+                "p99 admin page latency grew from " + smallest[2] + "ms to " + largest[2] + "ms");
+    }
+
+    // Students spread over the courses plus some professors, all created before any notification
+    private long[] seedUsers() {
+        long existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username LIKE ?", Long.class, USERNAME_PREFIX + "%");
+        Timestamp joined = Timestamp.valueOf(LocalDateTime.now().minusYears(2));
+        List<Object[]> args = new ArrayList<>();
+        for (long i = existing; i < USERS; i++) {
+            String role = i % 50 == 0 ? "professor" : "student";
+            args.add(new Object[]{USERNAME_PREFIX + i, "benchmark", role, "BENCH" + (i % COURSES), joined});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO users (username, password, role, course_id, created_at) VALUES (?, ?, ?, ?, ?)", args);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ?", Long.class, USERNAME_PREFIX + "%")
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Announcements to everyone, to a role and to a course; some read one by one, some under a watermark
+    private void seedBroadcasts() {
+        long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM broadcast_notifications", Long.class);
+        if (existing >= BROADCASTS) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object[]> args = new ArrayList<>();
+        for (long i = existing; i < BROADCASTS; i++) {
+            int kind = random.nextInt(3);
+            args.add(new Object[]{
+                    kind == 1 ? (random.nextBoolean() ? "student" : "professor") : null,
+                    kind == 2 ? "BENCH" + random.nextInt(COURSES) : null,
+                    "Benchmark announcement",
+                    "Seeded row for paging benchmark",
+                    "course",
+                    Timestamp.valueOf(now.minusSeconds(random.nextLong(365L * 24 * 3600)))
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO broadcast_notifications "
+                + "(audience_role, audience_course_id, title, message, type, created_at) VALUES (?, ?, ?, ?, ?, ?)", args);
+
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM broadcast_notifications", Long.class);
+        List<Object[]> marks = new ArrayList<>();
+        List<Object[]> reads = new ArrayList<>();
+        for (long userId : userIds) {
+            long watermark = random.nextBoolean() ? random.nextLong(maxId) : 0;
+            marks.add(new Object[]{userId, watermark});
+            for (int r = 0; r < 5; r++) reads.add(new Object[]{userId, watermark + 1 + random.nextLong(maxId - watermark)});
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO notification_read_marks (user_id, broadcast_watermark) VALUES (?, ?)", marks);
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO broadcast_reads (user_id, broadcast_id) VALUES (?, ?)", reads);
+    }
+
+    private void seedUntil(long rows) {
+        long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (existing < rows) {
+            int batch = (int) Math.min(SEED_BATCH, rows - existing);
+            List<Object[]> args = new ArrayList<>(batch);
+            for (int i = 0; i < batch; i++) {
+                args.add(new Object[]{
+                        userIds[random.nextInt(userIds.length)],
+                        "Benchmark notification",
+                        "Seeded row for paging benchmark",
+                        "system",
+                        random.nextBoolean(),
+                        Timestamp.valueOf(now.minusSeconds(random.nextLong(365L * 24 * 3600)))
+                });
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO notifications (user_id, title, message, type, is_read, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    args);
+            existing += batch;
+        }
+    }
+
+    // Returns {p50, p99} in milliseconds for one cursor hop of a random user's inbox, or of the admin view
+    private double[] measure(boolean inbox) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] samples = new double[SAMPLES * PAGES_PER_SAMPLE];
+        int n = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long userId = userIds[random.nextInt(userIds.length)];
+            String cursor = null;
+            for (int page = 0; page < PAGES_PER_SAMPLE; page++) {
+                long start = System.nanoTime();
+                NotificationService.Page result = inbox
+                        ? notificationService.getInboxPage(userId, cursor, 50)
+                        : notificationService.getAllPage(cursor, 50);
+                samples[n++] = (System.nanoTime() - start) / 1_000_000.0;
+                cursor = result.nextCursor();
+                if (cursor == null) break;
+            }
+        }
+        double[] taken = Arrays.copyOf(samples, n);
+        Arrays.sort(taken);
+        return new double[]{taken[(int) (n * 0.50)], taken[Math.min(n - 1, (int) (n * 0.99))]};
+    }
+}
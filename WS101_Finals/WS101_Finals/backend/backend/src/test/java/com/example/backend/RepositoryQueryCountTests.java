@@ -0,0 +1,177 @@
+package com.example.backend;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements and loaded entities per listing endpoint,
+ * using Hibernate statistics, so a findAll()-and-filter can't creep back in.
+ * Every test seeds its own course with noise rows in a second course and rolls
+ * back afterwards; a full-table read would load the noise too.
+ *
+ * Statistics are global to the session factory, so the search index (whose
+ * startup catch-up reads every table in the background) is mocked out.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class RepositoryQueryCountTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private SubjectRepository subjectRepository;
+    @Autowired private QuizRepository quizRepository;
+    @Autowired private LearningMaterialRepository materialRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private ModuleRepository moduleRepository;
+    @MockitoBean private SearchIndexService searchIndex;
+
+    private String courseId;
+    private String subjectCode;
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        courseId = "QC-" + run;
+        subjectCode = "QC-" + run + "-1";
+
+        // Two subjects in the course under test, one elsewhere
+        saveSubject(subjectCode, courseId);
+        saveSubject("QC-" + run + "-2", courseId);
+        saveSubject("QC-" + run + "-X", "QC-" + run + "-OTHER");
+
+        for (String code : new String[]{subjectCode, "QC-" + run + "-2", "QC-" + run + "-X"}) {
+            for (int i = 0; i < 3; i++) {
+                saveQuiz(code);
+                saveMaterial(code, 1L);
+                saveMaterial(code, 2L);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear(); // later reads must hit the database
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void professorQuizzesForSubject() throws Exception {
+        mockMvc.perform(get("/api/professor/quizzes").param("subjectCode", subjectCode)).andExpect(status().isOk());
+        assertQueries(1, 3);
+    }
+
+    @Test
+    void professorMaterialsForSubject() throws Exception {
+        mockMvc.perform(get("/api/professor/materials").param("subjectCode", subjectCode)).andExpect(status().isOk());
+        assertQueries(1, 6);
+    }
+
+    @Test
+    void studentQuizzesForCourse() throws Exception {
+        mockMvc.perform(get("/api/student/quizzes").param("courseId", courseId)).andExpect(status().isOk());
+        assertQueries(2, 2 + 6); // the course's subjects, then their quizzes
+    }
+
+    @Test
+    void studentMaterialsForModule() throws Exception {
+        mockMvc.perform(get("/api/student/materials").param("subjectCode", subjectCode).param("moduleId", "1"))
+                .andExpect(status().isOk());
+        assertQueries(1, 3);
+    }
+
+    @Test
+    void revalidatedMaterialsRunNoQuery() throws Exception {
+        String etag = mockMvc.perform(get("/api/professor/materials").param("subjectCode", subjectCode))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        statistics.clear();
+
+        mockMvc.perform(get("/api/professor/materials").param("subjectCode", subjectCode).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        assertQueries(0, 0);
+    }
+
+    @Test
+    void professorStatsForCourse() throws Exception {
+        mockMvc.perform(get("/api/professor/stats").param("courseId", courseId)).andExpect(status().isOk());
+        assertQueries(1, 0); // the course's counter rows; none exist for the seeded course
+    }
+
+    @Test
+    void courseTree() throws Exception {
+        Course course = new Course();
+        course.setId(courseId);
+        course.setTitle("Query count course");
+        courseRepository.save(course);
+        for (String code : new String[]{subjectCode, courseId + "-2"}) {
+            for (int n = 1; n <= 2; n++) {
+                Module module = new Module();
+                module.setTitle("Module " + n);
+                module.setModuleNumber(n);
+                module.setSubjectCode(code);
+                moduleRepository.save(module);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/courses/{id}/tree", courseId)).andExpect(status().isOk());
+        assertQueries(4, 1 + 2 + 4 + 12); // course, subjects, modules, materials: one IN query each
+    }
+
+    private void assertQueries(long statements, long entities) {
+        assertEquals(statements, statistics.getPrepareStatementCount(), "SQL statements");
+        assertEquals(entities, statistics.getEntityLoadCount(), "entities loaded");
+    }
+
+    private void saveSubject(String code, String course) {
+        Subject subject = new Subject();
+        subject.setCode(code);
+        subject.setTitle("Query count " + code);
+        subject.setCourseId(course);
+        subject.setYearLevel(1);
+        subject.setSemester(1);
+        subject.setStatus("active");
+        subjectRepository.save(subject);
+    }
+
+    private void saveQuiz(String code) {
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Quiz");
+        quiz.setSubjectCode(code);
+        quiz.setDateCreated(LocalDate.now());
+        quizRepository.save(quiz);
+    }
+
+    private void saveMaterial(String code, Long moduleId) {
+        LearningMaterial material = new LearningMaterial();
+        material.setTitle("Lesson");
+        material.setType("pdf");
+        material.setSubjectCode(code);
+        material.setModuleId(moduleId);
+        material.setFilePath("missing.pdf");
+        materialRepository.save(material);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.backend;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * S3BlobStore against a MinIO container: put/stat, range reads, the prefixed
+ * listing behind forEach, and presigned URLs that work without the app.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class S3BlobStoreTests {
+
+    private static final String BUCKET = "lms-uploads-test";
+    private static final String PREFIX = "uploads/";
+
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-12-18T13-15-44Z");
+
+    private static S3Client admin;
+    private static S3BlobStore store;
+
+    @TempDir Path staging;
+
+    @BeforeAll
+    static void createBucket() {
+        admin = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(MINIO.getUserName(), MINIO.getPassword())))
+                .build();
+        admin.createBucket(b -> b.bucket(BUCKET));
+        // Outside the store's prefix; forEach must not report it
+        admin.putObject(b -> b.bucket(BUCKET).key("other/unrelated.txt"), RequestBody.fromString("x"));
+
+        store = new S3BlobStore();
+        ReflectionTestUtils.setField(store, "bucket", BUCKET);
+        ReflectionTestUtils.setField(store, "prefix", PREFIX);
+        ReflectionTestUtils.setField(store, "region", "us-east-1");
+        ReflectionTestUtils.setField(store, "endpoint", MINIO.getS3URL());
+        ReflectionTestUtils.setField(store, "pathStyle", true);
+        ReflectionTestUtils.setField(store, "accessKey", MINIO.getUserName());
+        ReflectionTestUtils.setField(store, "secretKey", MINIO.getPassword());
+        store.init();
+    }
+
+    @AfterAll
+    static void close() {
+        store.close();
+        admin.close();
+    }
+
+    @Test
+    void putStoresUnderThePrefixAndRemovesTheSource() throws IOException {
+        Path source = source("hello");
+        store.put("put.pdf", source);
+
+        assertFalse(Files.exists(source));
+        assertEquals(5, store.stat("put.pdf").size());
+        assertEquals("application/pdf",
+                admin.headObject(b -> b.bucket(BUCKET).key(PREFIX + "put.pdf")).contentType());
+        assertNull(store.stat("missing.pdf"));
+    }
+
+    @Test
+    void rangeReadsReturnOnlyTheRequestedBytes() throws IOException {
+        store.put("digits.txt", source("0123456789"));
+
+        assertEquals("2345", read(store.open("digits.txt", 2, 5)));
+        assertEquals("789", read(store.open("digits.txt", 7, -1)));
+        assertEquals("0123456789", read(store.open("digits.txt")));
+    }
+
+    @Test
+    void forEachListsOnlyThePrefixWithKeysStripped() throws IOException {
+        store.put("list-a.pdf", source("a"));
+        store.put("list-b.jpg", source("bb"));
+
+        Set<String> keys = new HashSet<>();
+        store.forEach((key, info) -> {
+            if (key.startsWith("list-")) keys.add(key + ":" + info.size());
+            assertFalse(key.startsWith(PREFIX) || key.contains("unrelated"), key);
+        });
+        assertEquals(Set.of("list-a.pdf:1", "list-b.jpg:2"), keys);
+    }
+
+    @Test
+    void presignedUrlDownloadsWithoutCredentials() throws Exception {
+        store.put("signed.txt", source("signed content"));
+
+        URI url = store.presign("signed.txt", Duration.ofMinutes(5));
+        assertNotNull(url);
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(url).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("signed content", response.body());
+    }
+
+    @Test
+    void touchCopiesInPlaceAndKeepsMetadata() throws Exception {
+        store.put("reused.pdf", source("same bytes"));
+        long written = store.stat("reused.pdf").lastModified();
+        Thread.sleep(1100); // Last-Modified has whole seconds
+
+        assertTrue(store.touch("reused.pdf"));
+        assertTrue(store.stat("reused.pdf").lastModified() > written);
+        assertEquals("application/pdf",
+                admin.headObject(b -> b.bucket(BUCKET).key(PREFIX + "reused.pdf")).contentType());
+        assertEquals("same bytes", read(store.open("reused.pdf")));
+        assertFalse(store.touch("missing.pdf"));
+    }
+
+    @Test
+    void deleteReportsWhetherThereWasABlob() throws IOException {
+        store.put("gone.pdf", source("x"));
+
+        assertTrue(store.delete("gone.pdf"));
+        assertFalse(store.delete("gone.pdf"));
+    }
+
+    private Path source(String content) throws IOException {
+        Path file = Files.createTempFile(staging, "blob", ".part");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -4,7 +4,7 @@ const API_URL = "http://localhost:8080/api/admin";
 let isEditCourseMode = false;
 let isEditSubjectMode = false;
 let selectedCourseId = null; // For Subject Management
-let allLogs = []; // For Activity Logs filtering
+let logFilter = 'all'; // Activity Logs filter button (sent to the server)
 
 // ==========================================
 // 1. INITIALIZATION & NAVIGATION
@@ -79,18 +79,34 @@ async function loadCoursesForDropdown() {
     } catch (err) { console.error(err); }
 }
 
-async function loadUsers() {
+const USERS_PAGE_SIZE = 50;
+
+// Dashboard totals from one /overview call (counts run in parallel on the server)
+function loadOverview() {
+    fetch(`${API_URL}/overview`)
+        .then(r => r.json())
+        .then(data => {
+            const users = document.getElementById('count-users');
+            if (users) users.innerText = data.totalUsers;
+            const courses = document.getElementById('count-courses');
+            if (courses) courses.innerText = data.courses;
+        })
+        .catch(e => console.error("Error loading overview:", e));
+}
+
+// Pages of 50 from /users; the dashboard totals come from /overview
+async function loadUsers(page = 0) {
     try {
-        const res = await fetch(`${API_URL}/users`);
-        const users = await res.json();
+        const res = await fetch(`${API_URL}/users?page=${page}&size=${USERS_PAGE_SIZE}&sort=username`);
+        const result = await res.json();
+        const users = result.content;
         const tbody = document.getElementById('users-table-body');
-        tbody.innerHTML = '';
+        if (page === 0) tbody.innerHTML = '';
+        document.getElementById('users-load-more')?.remove();
 
-        if(document.getElementById('count-users')) {
-            document.getElementById('count-users').innerText = users.length;
-        }
+        if (page === 0) loadOverview();
 
-        if (users.length === 0) {
+        if (page === 0 && users.length === 0) {
             tbody.innerHTML = '<tr><td colspan="4" style="text-align:center;">No users found.</td></tr>';
             return;
         }
@@ -110,6 +126,13 @@ async function loadUsers() {
             `;
             tbody.appendChild(tr);
         });
+
+        if (result.hasNext) {
+            const more = document.createElement('tr');
+            more.id = 'users-load-more';
+            more.innerHTML = `<td colspan="4" style="text-align:center;"><button class="action-btn-icon" onclick="loadUsers(${page + 1})">Load more</button></td>`;
+            tbody.appendChild(more);
+        }
     } catch (err) { console.error(err); }
 }
 
@@ -186,7 +209,7 @@ async function loadCourses() {
             // If course has image, use it
             if (course.image) {
                 let cleanImage = course.image.replace('uploads/', '');
-                const imageUrl = `http://localhost:8080/uploads/${cleanImage}`;
+                const imageUrl = `http://localhost:8080/uploads/${cleanImage}?size=card`;
                 backgroundStyle = `background-image: url('${imageUrl}'); background-size: cover; background-position: center;`;
             }
 
@@ -477,30 +500,73 @@ async function deleteSubject(code) {
 // 5. ACTIVITY LOGS (✅ NEW SECTION)
 // ==========================================
 
-async function loadActivityLogs() {
+const LOGS_PAGE_SIZE = 100;
+
+// The exact actions behind each filter button, as AdminController logs them; the server matches them by index
+const LOG_ACTIONS = {
+    all: [],
+    user: ['User created', 'User deleted', 'User profile updated by admin'],
+    course: ['Course created', 'Course updated', 'Course deleted']
+};
+
+// Filters and paging go to the server: the page only ever holds what has been loaded
+function logQuery(afterId) {
+    const params = new URLSearchParams({ limit: LOGS_PAGE_SIZE });
+    LOG_ACTIONS[logFilter].forEach(action => params.append('action', action));
+
+    const role = document.getElementById('log-role')?.value;
+    if (role) params.set('role', role);
+
+    // Dates are whole days; "to" includes its day, the server's end is exclusive
+    const from = document.getElementById('log-from')?.value;
+    if (from) params.set('from', `${from}T00:00:00`);
+    const to = document.getElementById('log-to')?.value;
+    if (to) {
+        const end = new Date(`${to}T00:00:00Z`);
+        end.setUTCDate(end.getUTCDate() + 1);
+        params.set('to', `${end.toISOString().slice(0, 10)}T00:00:00`);
+    }
+
+    if (afterId) params.set('afterId', afterId);
+    return params;
+}
+
+// First page, or the page after afterId appended with "Load more"
+async function loadActivityLogs(afterId = null) {
     const tbody = document.getElementById('logs-table-body');
     if(!tbody) return;
-    tbody.innerHTML = '<tr><td colspan="4" style="text-align:center;">Loading logs...</td></tr>';
+    if (!afterId) tbody.innerHTML = '<tr><td colspan="4" style="text-align:center;">Loading logs...</td></tr>';
 
     try {
-        const res = await fetch(`${API_URL}/logs`);
-        allLogs = await res.json();
-        renderLogs(allLogs);
+        const res = await fetch(`${API_URL}/logs?${logQuery(afterId)}`);
+        if (!res.ok) throw new Error(`HTTP ${res.status}`);
+        const logs = await res.json();
+
+        if (!afterId) tbody.innerHTML = '';
+        document.getElementById('logs-load-more')?.remove();
+
+        if (!afterId && logs.length === 0) {
+            tbody.innerHTML = '<tr><td colspan="4" style="text-align:center;">No activity recorded yet.</td></tr>';
+            return;
+        }
+        renderLogs(logs);
+
+        if (logs.length === LOGS_PAGE_SIZE) {
+            const more = document.createElement('tr');
+            more.id = 'logs-load-more';
+            more.innerHTML = `<td colspan="4" style="text-align:center;"><button class="btn btn-sm" onclick="loadActivityLogs(${logs[logs.length - 1].id})">Load more</button></td>`;
+            tbody.appendChild(more);
+        }
     } catch (err) {
         console.error(err);
         tbody.innerHTML = '<tr><td colspan="4" style="text-align:center; color:red;">Failed to load logs.</td></tr>';
     }
 }
 
+// Appends rows to the table
 function renderLogs(logs) {
     const tbody = document.getElementById('logs-table-body');
     if(!tbody) return;
-    tbody.innerHTML = '';
-
-    if (logs.length === 0) {
-        tbody.innerHTML = '<tr><td colspan="4" style="text-align:center;">No activity recorded yet.</td></tr>';
-        return;
-    }
 
     logs.forEach(log => {
         // Determine border color based on action keyword
@@ -534,16 +600,8 @@ function filterLogs(filterType) {
         }
     });
 
-    if (filterType === 'all') {
-        renderLogs(allLogs);
-    } else {
-        // Filter array based on Action or Role containing the keyword
-        const filtered = allLogs.filter(log =>
-            (log.action && log.action.toLowerCase().includes(filterType.toLowerCase())) ||
-            (log.role && log.role.toLowerCase().includes(filterType.toLowerCase()))
-        );
-        renderLogs(filtered);
-    }
+    logFilter = filterType.toLowerCase();
+    loadActivityLogs();
 }
 
 // ==========================================
@@ -611,7 +669,7 @@ async function loadProfile() {
             if (currentUser.profilePicture) {
                 const img = document.getElementById('profile-img');
                 const icon = document.getElementById('profile-icon');
-                img.src = `http://localhost:8080/uploads/${currentUser.profilePicture}`;
+                img.src = `http://localhost:8080/uploads/${currentUser.profilePicture}?size=thumb`;
                 img.style.display = 'block';
                 icon.style.display = 'none';
             }
@@ -759,15 +817,20 @@ document.getElementById('password-form').addEventListener('submit', async (e) =>
 // ==========================================
 
 let notificationInterval = null;
+let adminNotifications = [];
+let notificationsCursor = null; // X-Next-Cursor of the last page loaded, null when there is no more
 
-// Load notifications
-async function loadNotifications() {
+// Load notifications: the newest page, or the page after the cursor appended with "Load older"
+async function loadNotifications(cursor = null) {
     try {
-        const res = await fetch(`${API_URL}/notifications?userId=${getCurrentUserId()}`);
+        const after = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+        const res = await fetch(`${API_URL}/notifications?userId=${getCurrentUserId()}${after}`);
         if (res.ok) {
-            const notifications = await res.json();
-            renderNotifications(notifications);
-            updateNotificationBadge(notifications);
+            const page = await res.json();
+            adminNotifications = cursor ? adminNotifications.concat(page) : page;
+            notificationsCursor = res.headers.get('X-Next-Cursor');
+            renderNotifications(adminNotifications);
+            updateNotificationBadge();
         }
     } catch (err) {
         console.error("Error loading notifications:", err);
@@ -812,13 +875,27 @@ function renderNotifications(notifications) {
         `;
     });
 
+    if (notificationsCursor) {
+        html += `
+            <div class="notif-item notif-more" onclick="event.stopPropagation(); loadNotifications(notificationsCursor)">
+                Load older
+            </div>
+        `;
+    }
+
     container.innerHTML = html;
 }
 
-// Update notification badge
-function updateNotificationBadge(notifications) {
+// Update notification badge (from the server: the loaded pages may not hold every unread item)
+async function updateNotificationBadge() {
     const badge = document.getElementById('notification-badge');
-    const unreadCount = notifications.filter(n => !n.isRead).length;
+    let unreadCount = 0;
+    try {
+        const res = await fetch(`${API_URL}/notifications/unread-count?userId=${getCurrentUserId()}`);
+        if (res.ok) unreadCount = (await res.json()).count;
+    } catch (err) {
+        console.error("Error loading unread count:", err);
+    }
 
     if (unreadCount > 0) {
         badge.textContent = unreadCount > 99 ? '99+' : unreadCount;
@@ -864,10 +941,19 @@ async function markAllAsRead() {
 
 // Start notification polling
 function startNotificationPolling() {
-    // Check for new notifications every 30 seconds
-    notificationInterval = setInterval(() => {
-        loadNotifications();
-    }, 30000);
+    // Browsers without Server-Sent Events fall back to checking every 30 seconds
+    if (!window.EventSource) {
+        notificationInterval = setInterval(() => {
+            loadNotifications();
+        }, 30000);
+        return;
+    }
+
+    // The server pushes changes; the admin list is small, so just reload it
+    const stream = new EventSource(`${API_URL}/notifications/stream?userId=${getCurrentUserId()}`);
+    stream.addEventListener('notification', () => loadNotifications());
+    stream.addEventListener('unread-count', () => loadNotifications());
+    stream.addEventListener('resync', () => loadNotifications());
 }
 
 // ==========================================
@@ -7,6 +7,7 @@ let allSubjects = [];
 let currentYearFilter = "All Years";
 let showAllCards = false;
 let studentNotifications = [];
+let studentNotificationsCursor = null; // X-Next-Cursor of the last page loaded, null when there is no more
 let currentStudent = null;
 
 // ==========================================
@@ -50,8 +51,8 @@ document.addEventListener("DOMContentLoaded", () => {
         }
     }
 
-    // A. Load Course Info
-    fetch(`http://localhost:8080/api/courses/${courseId}`)
+    // A. Load Course Info and its subjects in one call
+    fetch(`http://localhost:8080/api/courses/${courseId}/tree?depth=subjects`)
         .then(r => r.json())
         .then(data => {
             const titleEl = document.getElementById('dashboard-title');
@@ -61,7 +62,8 @@ document.addEventListener("DOMContentLoaded", () => {
             const courseEl = document.getElementById('student-course');
             if(courseEl) courseEl.value = data.title || '';
 
-            fetchSubjects(courseId);
+            allSubjects = (data.subjects || []).filter(s => s.status !== 'inactive'); // Only show active subjects
+            applyFilter();
         })
         .catch(e => console.error("Error loading course:", e));
 
@@ -84,19 +86,6 @@ document.addEventListener("DOMContentLoaded", () => {
     startNotificationPolling();
 });
 
-// ==========================================
-// 4. DATA FETCHING
-// ==========================================
-function fetchSubjects(cId) {
-    fetch(`http://localhost:8080/api/courses/${cId}/subjects`)
-        .then(r => r.json())
-        .then(subjects => {
-            allSubjects = subjects.filter(s => s.status !== 'inactive'); // Only show active subjects
-            applyFilter();
-        })
-        .catch(e => console.error(e));
-}
-
 // ==========================================
 // 5. RENDERING CARDS
 // ==========================================
@@ -281,12 +270,16 @@ function renderRecentViews() {
 // ==========================================
 // 9. NOTIFICATION SYSTEM
 // ==========================================
-async function loadStudentNotifications() {
+// Newest page first; older pages are appended with "Load older" (cursor from the previous page)
+async function loadStudentNotifications(cursor = null) {
     try {
         const userId = getStudentUserId();
-        const res = await fetch(`http://localhost:8080/api/admin/notifications?userId=${userId}`);
+        const after = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+        const res = await fetch(`http://localhost:8080/api/admin/notifications?userId=${userId}${after}`);
         if (res.ok) {
-            studentNotifications = await res.json();
+            const page = await res.json();
+            studentNotifications = cursor ? studentNotifications.concat(page) : page;
+            studentNotificationsCursor = res.headers.get('X-Next-Cursor');
             updateStudentNotificationBadge();
 
             // If notifications dropdown is open, update it
@@ -300,16 +293,13 @@ async function loadStudentNotifications() {
     }
 }
 
-function updateStudentNotificationBadge() {
-    const badge = document.getElementById('notification-badge');
-    if (!badge) return;
-
-    const unreadCount = studentNotifications.filter(n => !n.isRead).length;
-    if (unreadCount > 0) {
-        badge.textContent = unreadCount > 99 ? '99+' : unreadCount;
-        badge.style.display = 'block';
-    } else {
-        badge.style.display = 'none';
+// The loaded pages may not hold every unread item, so the count comes from the server
+async function updateStudentNotificationBadge() {
+    try {
+        const res = await fetch(`http://localhost:8080/api/admin/notifications/unread-count?userId=${getStudentUserId()}`);
+        if (res.ok) setNotificationBadgeCount((await res.json()).count);
+    } catch (err) {
+        console.error("Error loading unread count:", err);
     }
 }
 
@@ -357,6 +347,15 @@ function renderStudentNotifications() {
         `;
     });
 
+    if (studentNotificationsCursor) {
+        html += `
+            <div class="notif-item" style="text-align: center; color: #475569; font-size: 0.85rem;"
+                 onclick="event.stopPropagation(); loadStudentNotifications(studentNotificationsCursor)">
+                Load older
+            </div>
+        `;
+    }
+
     container.innerHTML = html;
 }
 
@@ -385,10 +384,38 @@ async function markAllStudentNotificationsAsRead() {
 }
 
 function startNotificationPolling() {
-    // Check for new notifications every 30 seconds
-    setInterval(() => {
-        loadStudentNotifications();
-    }, 30000);
+    // Browsers without Server-Sent Events fall back to checking every 30 seconds
+    if (!window.EventSource) {
+        setInterval(() => {
+            loadStudentNotifications();
+        }, 30000);
+        return;
+    }
+
+    // The server pushes new notifications and unread-count changes (reconnects resume automatically)
+    const stream = new EventSource(`http://localhost:8080/api/admin/notifications/stream?userId=${getStudentUserId()}`);
+    stream.addEventListener('notification', (e) => {
+        studentNotifications.unshift(JSON.parse(e.data)); // the unread-count event that follows moves the badge
+
+        const dropdown = document.getElementById('notification-dropdown');
+        if (dropdown && dropdown.classList.contains('show')) {
+            renderStudentNotifications();
+        }
+    });
+    stream.addEventListener('unread-count', (e) => setNotificationBadgeCount(JSON.parse(e.data).count));
+    stream.addEventListener('resync', () => loadStudentNotifications());
+}
+
+function setNotificationBadgeCount(unreadCount) {
+    const badge = document.getElementById('notification-badge');
+    if (!badge) return;
+
+    if (unreadCount > 0) {
+        badge.textContent = unreadCount > 99 ? '99+' : unreadCount;
+        badge.style.display = 'block';
+    } else {
+        badge.style.display = 'none';
+    }
 }
 
 // ==========================================
@@ -503,7 +530,7 @@ function loadStudentProfileData() {
     const profileImg = document.getElementById('student-profile-img');
     const profileIcon = document.getElementById('student-profile-icon');
     if (currentStudent.profilePicture && profileImg) {
-        profileImg.src = `http://localhost:8080/uploads/${currentStudent.profilePicture}`;
+        profileImg.src = `http://localhost:8080/uploads/${currentStudent.profilePicture}?size=thumb`;
         profileImg.style.display = 'block';
         if (profileIcon) profileIcon.style.display = 'none';
     }
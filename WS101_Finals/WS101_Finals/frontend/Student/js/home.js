@@ -37,7 +37,7 @@ async function fetchCourses() {
 
             // 3. Construct Final URL
             // If empty, use a placeholder. Otherwise, combine base URL + filename
-            let finalUrl = imgPart ? `${IMG_BASE_URL}${imgPart}` : 'https://via.placeholder.com/280x350?text=No+Image';
+            let finalUrl = imgPart ? `${IMG_BASE_URL}${imgPart}?size=card` : 'https://via.placeholder.com/280x350?text=No+Image';
 
             // --- COLOR LOGIC ---
             const color = c.themeColor || '#3b82f6'; // Default blue
@@ -4,6 +4,7 @@
 const API_BASE_URL = "http://localhost:8080/api";
 let currentProfessor = null;
 let professorNotifications = [];
+let professorNotificationsCursor = null; // X-Next-Cursor of the last page loaded, null when there is no more
 let professorStats = {
     totalStudents: 0,
     activeSubjects: 0,
@@ -182,12 +183,16 @@ async function loadProfessorStats() {
 // ==========================================
 // 7. NOTIFICATION SYSTEM
 // ==========================================
-async function loadProfessorNotifications() {
+// Newest page first; older pages are appended with "Load older" (cursor from the previous page)
+async function loadProfessorNotifications(cursor = null) {
     try {
         const userId = getProfessorUserId();
-        const res = await fetch(`${API_BASE_URL}/admin/notifications?userId=${userId}`);
+        const after = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
+        const res = await fetch(`${API_BASE_URL}/admin/notifications?userId=${userId}${after}`);
         if (res.ok) {
-            professorNotifications = await res.json();
+            const page = await res.json();
+            professorNotifications = cursor ? professorNotifications.concat(page) : page;
+            professorNotificationsCursor = res.headers.get('X-Next-Cursor');
             updateNotificationBadge();
 
             const dropdown = document.getElementById('notification-dropdown');
@@ -200,16 +205,13 @@ async function loadProfessorNotifications() {
     }
 }
 
-function updateNotificationBadge() {
-    const badge = document.getElementById('notification-badge');
-    if (!badge) return;
-
-    const unreadCount = professorNotifications.filter(n => !n.isRead).length;
-    if (unreadCount > 0) {
-        badge.textContent = unreadCount > 99 ? '99+' : unreadCount;
-        badge.style.display = 'block';
-    } else {
-        badge.style.display = 'none';
+// The loaded pages may not hold every unread item, so the count comes from the server
+async function updateNotificationBadge() {
+    try {
+        const res = await fetch(`${API_BASE_URL}/admin/notifications/unread-count?userId=${getProfessorUserId()}`);
+        if (res.ok) setNotificationBadgeCount((await res.json()).count);
+    } catch (err) {
+        console.error("Error loading unread count:", err);
     }
 }
 
@@ -253,6 +255,14 @@ function renderNotifications() {
         `;
     });
 
+    if (professorNotificationsCursor) {
+        html += `
+            <div class="notif-item notif-more" onclick="event.stopPropagation(); loadProfessorNotifications(professorNotificationsCursor)">
+                Load older
+            </div>
+        `;
+    }
+
     container.innerHTML = html;
 }
 
@@ -281,9 +291,38 @@ async function markAllAsRead() {
 }
 
 function startNotificationPolling() {
-    setInterval(() => {
-        loadProfessorNotifications();
-    }, 30000);
+    // Browsers without Server-Sent Events fall back to checking every 30 seconds
+    if (!window.EventSource) {
+        setInterval(() => {
+            loadProfessorNotifications();
+        }, 30000);
+        return;
+    }
+
+    // The server pushes new notifications and unread-count changes (reconnects resume automatically)
+    const stream = new EventSource(`${API_BASE_URL}/admin/notifications/stream?userId=${getProfessorUserId()}`);
+    stream.addEventListener('notification', (e) => {
+        professorNotifications.unshift(JSON.parse(e.data)); // the unread-count event that follows moves the badge
+
+        const dropdown = document.getElementById('notification-dropdown');
+        if (dropdown && dropdown.classList.contains('show')) {
+            renderNotifications();
+        }
+    });
+    stream.addEventListener('unread-count', (e) => setNotificationBadgeCount(JSON.parse(e.data).count));
+    stream.addEventListener('resync', () => loadProfessorNotifications());
+}
+
+function setNotificationBadgeCount(unreadCount) {
+    const badge = document.getElementById('notification-badge');
+    if (!badge) return;
+
+    if (unreadCount > 0) {
+        badge.textContent = unreadCount > 99 ? '99+' : unreadCount;
+        badge.style.display = 'block';
+    } else {
+        badge.style.display = 'none';
+    }
 }
 
 // ==========================================
@@ -361,7 +400,7 @@ function loadProfessorProfileData() {
     const profileImg = document.getElementById('professor-profile-img');
     const profileIcon = document.getElementById('professor-profile-icon');
     if (currentProfessor.profilePicture && profileImg) {
-        profileImg.src = `http://localhost:8080/uploads/${currentProfessor.profilePicture}`;
+        profileImg.src = `http://localhost:8080/uploads/${currentProfessor.profilePicture}?size=thumb`;
         profileImg.style.display = 'block';
         if (profileIcon) profileIcon.style.display = 'none';
     }